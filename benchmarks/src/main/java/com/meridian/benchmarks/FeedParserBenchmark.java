@@ -0,0 +1,57 @@
+package main.java.com.meridian.benchmarks;
+
+import main.java.com.meridian.exception.FileReaderException;
+import main.java.com.meridian.utilities.NewsFeed;
+import main.java.com.meridian.utilities.NewsRSSFeedParser;
+import main.java.com.meridian.utilities.RatesFeed;
+import main.java.com.meridian.utilities.RatesRSSFeedParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Throughput of a full feed parse, from opening the file to the parsed feed object. Each call
+ * reads the whole fixture again; file: URLs carry no validators, so nothing is reused.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeedParserBenchmark {
+
+    @Param({Fixtures.SMALL, Fixtures.TYPICAL, Fixtures.LARGE})
+    public String newsFeedSize;
+
+    private NewsRSSFeedParser newsParser;
+    private RatesRSSFeedParser ratesParser;
+
+    @Setup
+    public void setUp() throws IOException {
+        newsParser = new NewsRSSFeedParser(Fixtures.newsFeedUrl(newsFeedSize));
+        ratesParser = new RatesRSSFeedParser(Fixtures.ratesFeedUrl());
+    }
+
+    @Benchmark
+    public NewsFeed readNewsFeed() throws FileReaderException {
+        return newsParser.readFeed();
+    }
+
+    @Benchmark
+    public RatesFeed readRatesFeed() throws FileReaderException {
+        return ratesParser.readFeed();
+    }
+}
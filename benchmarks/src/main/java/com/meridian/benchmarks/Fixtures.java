@@ -0,0 +1,110 @@
+package main.java.com.meridian.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+/*
+ * Recorded feeds for the benchmarks, copied out of the jar into temp files so the parsers can read
+ * them through file: URLs without touching the network.
+ */
+
+public class Fixtures {
+    static final String SMALL = "small";
+    static final String TYPICAL = "typical";
+    static final String LARGE = "large";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // The large feed is the typical one with its items repeated this many times
+    private static final int LARGE_REPEAT = 40;
+
+    private Fixtures () {
+    }
+
+    /**
+     * Returns a file: URL for the named news fixture: small, typical or large.
+     */
+    public static String newsFeedUrl(String size) throws IOException {
+        if (LARGE.equals(size)) {
+            return write("news-large", ".rss", generateLargeFeed(read("news-typical.rss")));
+        }
+        return write("news-" + size, ".rss", read("news-" + size + ".rss"));
+    }
+
+    public static String ratesFeedUrl() throws IOException {
+        return write("rates", ".xml", read("rates.xml"));
+    }
+
+    /**
+     * A launch request for the skill, timestamped now so the handler accepts it. It is the canned
+     * request the skill primes itself with.
+     */
+    public static byte[] launchRequest(String applicationId) throws IOException {
+        InputStream in = Fixtures.class.getClassLoader().getResourceAsStream("priming/launch-request.json");
+        if (in == null) {
+            throw new IOException("Missing the skill's priming/launch-request.json");
+        }
+        String request = new String(readAll(in), UTF_8);
+        String timestamp = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'") {
+            {
+                setTimeZone(TimeZone.getTimeZone("UTC"));
+            }
+        }.format(new Date());
+        return request.replace("2018-10-17T12:00:00Z", timestamp)
+                .replace("amzn1.ask.skill.priming", String.valueOf(applicationId))
+                .getBytes(UTF_8);
+    }
+
+    /**
+     * Builds a very large feed by repeating the items of the given one.
+     */
+    static String generateLargeFeed(String feed) {
+        int itemsStart = feed.indexOf("<item>");
+        int itemsEnd = feed.lastIndexOf("</item>") + "</item>".length();
+        String items = feed.substring(itemsStart, itemsEnd);
+
+        StringBuilder builder = new StringBuilder(feed.length() * LARGE_REPEAT);
+        builder.append(feed, 0, itemsStart);
+        for (int i = 0; i < LARGE_REPEAT; i++) {
+            builder.append(items).append('\n');
+        }
+        builder.append(feed, itemsEnd, feed.length());
+        return builder.toString();
+    }
+
+    static String read(String name) throws IOException {
+        InputStream in = Fixtures.class.getClassLoader().getResourceAsStream("fixtures/" + name);
+        if (in == null) {
+            throw new IOException("Missing fixture " + name);
+        }
+        return new String(readAll(in), UTF_8);
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    private static String write(String prefix, String suffix, String content) throws IOException {
+        File file = File.createTempFile(prefix, suffix);
+        file.deleteOnExit();
+        Files.write(file.toPath(), content.getBytes(UTF_8));
+        return file.toURI().toURL().toExternalForm();
+    }
+}
@@ -0,0 +1,75 @@
+package main.java.com.meridian.benchmarks;
+
+import main.java.com.meridian.exception.FileReaderException;
+import main.java.com.meridian.utilities.CompactRates;
+import main.java.com.meridian.utilities.NewsFeed;
+import main.java.com.meridian.utilities.NewsFeedMessage;
+import main.java.com.meridian.utilities.NewsRSSFeedParser;
+import main.java.com.meridian.utilities.RatesFeed;
+import main.java.com.meridian.utilities.RatesRSSFeedParser;
+import main.java.com.meridian.utilities.SpeechChunker;
+import main.java.com.meridian.utilities.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Throughput of turning parsed feeds into the text the skill speaks: converting the rates to their
+ * compact form with their sentences, splitting news articles into lines, and chunking them into
+ * speech sized segments. The feeds are parsed once in setup.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpeechRenderingBenchmark {
+    private static final int LINE_SIZE = 40;
+    private static final int CHUNK_WORDS = 100;
+
+    private RatesFeed ratesFeed;
+    private NewsFeed newsFeed;
+    private StringUtils stringUtils;
+    private SpeechChunker speechChunker;
+
+    @Setup
+    public void setUp() throws IOException, FileReaderException {
+        ratesFeed = new RatesRSSFeedParser(Fixtures.ratesFeedUrl()).readFeed();
+        newsFeed = new NewsRSSFeedParser(Fixtures.newsFeedUrl(Fixtures.TYPICAL)).readFeed();
+        stringUtils = new StringUtils();
+        speechChunker = new SpeechChunker(CHUNK_WORDS);
+    }
+
+    @Benchmark
+    public List<String> formatRates() {
+        return CompactRates.of(ratesFeed).toSentences();
+    }
+
+    @Benchmark
+    public void splitArticles(Blackhole blackhole) {
+        for (NewsFeedMessage message : newsFeed.getMessages()) {
+            blackhole.consume(stringUtils.splitString(message.getEncodedContent(), LINE_SIZE));
+        }
+    }
+
+    @Benchmark
+    public void chunkArticles(Blackhole blackhole) {
+        for (NewsFeedMessage message : newsFeed.getMessages()) {
+            blackhole.consume(speechChunker.chunk(message.getEncodedContent()));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package main.java.com.meridian.benchmarks;
+
+import main.java.com.meridian.exception.FileReaderException;
+import main.java.com.meridian.utilities.NewsFeed;
+import main.java.com.meridian.utilities.NewsFeedMessage;
+import main.java.com.meridian.utilities.NewsRSSFeedParser;
+import main.java.com.meridian.utilities.SsmlSanitizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Throughput of stripping article HTML down to speakable text, in feeds of articles per second. The
+ * large articles are the typical ones with their body repeated, as a long feature would be.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SsmlSanitizerBenchmark {
+    private static final int LARGE_ARTICLE_REPEAT = 20;
+
+    @Param({Fixtures.TYPICAL, Fixtures.LARGE})
+    public String articleSize;
+
+    private List<String> articles;
+
+    @Setup
+    public void setUp() throws IOException, FileReaderException {
+        NewsFeed newsFeed = new NewsRSSFeedParser(Fixtures.newsFeedUrl(Fixtures.TYPICAL)).readFeed();
+        int repeat = Fixtures.LARGE.equals(articleSize) ? LARGE_ARTICLE_REPEAT : 1;
+        articles = new ArrayList<String>();
+        for (NewsFeedMessage message : newsFeed.getMessages()) {
+            StringBuilder article = new StringBuilder();
+            for (int i = 0; i < repeat; i++) {
+                article.append(message.getEncodedContent());
+            }
+            articles.add(article.toString());
+        }
+    }
+
+    @Benchmark
+    public void sanitizeArticles(Blackhole blackhole) {
+        for (String article : articles) {
+            blackhole.consume(SsmlSanitizer.sanitize(article));
+        }
+    }
+
+    @Benchmark
+    public void sanitizeAndEscapeArticles(Blackhole blackhole) {
+        StringBuilder ssml = new StringBuilder();
+        for (String article : articles) {
+            ssml.setLength(0);
+            blackhole.consume(SsmlSanitizer.escape(SsmlSanitizer.sanitize(article), ssml).length());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package main.java.com.meridian.benchmarks;
+
+import main.java.com.meridian.alexa.skill.NewsWizardSpeechletRequestStreamHandler;
+import main.java.com.meridian.utilities.PropertyReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Cold start of the Lambda handler: every fork is a fresh JVM that is measured exactly once, as a
+ * new container would be. Reports the time to construct the handler and the latency of the first
+ * request after it, a launch request, with and without priming.
+ */
+
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Cold {
+        @Param({"false", "true"})
+        public boolean prime;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Constructed {
+        @Param({"false", "true"})
+        public boolean prime;
+
+        NewsWizardSpeechletRequestStreamHandler handler;
+        byte[] launchRequest;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            handler = new NewsWizardSpeechletRequestStreamHandler(prime);
+            launchRequest = Fixtures.launchRequest(PropertyReader.getPropertyReader().getSkillId());
+        }
+    }
+
+    @Benchmark
+    public NewsWizardSpeechletRequestStreamHandler constructHandler(Cold cold) {
+        return new NewsWizardSpeechletRequestStreamHandler(cold.prime);
+    }
+
+    @Benchmark
+    public byte[] firstRequest(Constructed constructed) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        constructed.handler.handleRequest(new ByteArrayInputStream(constructed.launchRequest), out, null);
+        return out.toByteArray();
+    }
+}
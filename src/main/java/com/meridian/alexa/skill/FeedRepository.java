@@ -0,0 +1,364 @@
+/**
+    Copyright  */
+package main.java.com.meridian.alexa.skill;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.regions.Region;
+import com.amazonaws.regions.Regions;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClient;
+import main.java.com.meridian.exception.FileReaderException;
+import main.java.com.meridian.utilities.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Owns the news and rates snapshots served by {@link NewsWizardSpeechlet}.
+ *
+ * <ul>
+ * <li><b>Ingest</b>: every download becomes an immutable snapshot with its speech pages packed and rendered</li>
+ * <li><b>Caching</b>: one cache per news city and one for rates, refreshed in the background</li>
+ * <li><b>Last known good</b>: every new download is written to disk, and a cold container starts
+ * from those files, flagged stale, while the first refresh runs</li>
+ * <li><b>Shared copy</b>: optionally, downloads go through a DynamoDB table shared by all containers,
+ * where a lease lets one container refresh a feed while the others read its last copy</li>
+ * </ul>
+ */
+public class FeedRepository {
+    private static final Logger log = LoggerFactory.getLogger(FeedRepository.class);
+    private static PropertyReader propertyReader = PropertyReader.getPropertyReader();
+
+    // Splits long articles once at ingest into segments that each fit a page on their own
+    private static final SpeechChunker articleChunker = new SpeechChunker(propertyReader.getArticleChunkWords());
+
+    // Keeps the words of every article of the latest snapshots, twice over to span a refresh
+    private static final NewsIndex.Builder newsIndexBuilder = new NewsIndex.Builder(
+            2 * propertyReader.getNewsItemLimit() * Math.max(1, propertyReader.getNewsCityFeedUrls().size()));
+
+    /**
+     * How much speech one page, and so one turn, may hold.
+     */
+    private static final PageBudget pageBudget = new PageBudget(propertyReader.getPageMaxCharacters(),
+            propertyReader.getPageMaxSpeakingSeconds(), propertyReader.getSpeakingWordsPerMinute());
+
+    static final String NEWS_SEPARATOR = "Next news";
+    static final String NEWS_MORE_PROMPT = "Do you want hear more?";
+    static final String RATES_SEPARATOR = "Next rate";
+    static final String RATES_MORE_PROMPT = "Say Next Rate if you would like to hear more rates?";
+
+    private static final FeedRepository feedRepository = new FeedRepository();
+
+    private final SnapshotFileStore snapshotStore;
+    private final SharedFeedLoader<NewsFeed> sharedNews;
+    private final SharedFeedLoader<RatesFeed> sharedRates;
+    private volatile CityNewsFeeds cityNewsFeeds;
+    private volatile SkillConfiguration cityNewsConfiguration;
+    private final FeedCache<RatesSnapshot> ratesFeedCache;
+    private final ArticleStore<NewsSnapshot> newsArticles;
+    private final ArticleStore<RatesSnapshot> ratesArticles;
+
+    private FeedRepository() {
+        snapshotStore = new SnapshotFileStore(new File(propertyReader.getSnapshotDirectory()));
+        DynamoSnapshotStore sharedStore = createSharedStore();
+        long sharedWaitMillis = Math.min(propertyReader.getSharedSnapshotWaitMillis(), propertyReader.getLatencyBudgetMillis());
+        sharedNews = sharedStore == null ? null : new SharedFeedLoader<NewsFeed>(sharedStore,
+                SnapshotFileStore.NEWS_CODEC, newsFetcher, propertyReader.getNewsCacheTtlSeconds(), sharedWaitMillis);
+        sharedRates = sharedStore == null ? null : new SharedFeedLoader<RatesFeed>(sharedStore,
+                SnapshotFileStore.RATES_CODEC, ratesFetcher, propertyReader.getRatesCacheTtlSeconds(), sharedWaitMillis);
+
+        cityNewsConfiguration = propertyReader.getConfiguration();
+        cityNewsFeeds = new CityNewsFeeds(cityNewsConfiguration.getNewsCityFeedUrls(), cityNewsConfiguration.getNewsDefaultCity(),
+                new SingleFlightLoader<NewsSnapshot>(new FeedCache.Loader<NewsSnapshot>() {
+                    @Override
+                    public NewsSnapshot load(String feedUrl) throws FileReaderException {
+                        SnapshotFileStore.Stored<NewsFeed> loaded = fetch(feedUrl, sharedNews, newsFetcher);
+                        snapshotStore.save(feedUrl, loaded.getFeed(), loaded.getFetchedAt(), SnapshotFileStore.NEWS_CODEC);
+                        return ingestNewsFeed(loaded.getFeed(), loaded.getFetchedAt(), false);
+                    }
+                }), propertyReader.getNewsCacheTtlSeconds(), propertyReader.getNewsFetchThreads());
+
+        ratesFeedCache = new FeedCache<RatesSnapshot>(
+                new SingleFlightLoader<RatesSnapshot>(new FeedCache.Loader<RatesSnapshot>() {
+                    @Override
+                    public RatesSnapshot load(String feedUrl) throws FileReaderException {
+                        SnapshotFileStore.Stored<RatesFeed> loaded = fetch(feedUrl, sharedRates, ratesFetcher);
+                        snapshotStore.save(feedUrl, loaded.getFeed(), loaded.getFetchedAt(), SnapshotFileStore.RATES_CODEC);
+                        return ingestRatesFeed(loaded.getFeed(), loaded.getFetchedAt(), false);
+                    }
+                }), propertyReader.getRatesCacheTtlSeconds());
+
+        newsArticles = new ArticleStore<NewsSnapshot>(new ArticleStore.Source<NewsSnapshot>() {
+            @Override
+            public NewsSnapshot getSnapshot(String city) throws FileReaderException {
+                return getNewsSnapshot(city);
+            }
+        }, propertyReader.getArticleStoreMaxSnapshots());
+
+        ratesArticles = new ArticleStore<RatesSnapshot>(new ArticleStore.Source<RatesSnapshot>() {
+            @Override
+            public RatesSnapshot getSnapshot(String feedUrl) throws FileReaderException {
+                return getRatesSnapshot();
+            }
+        }, propertyReader.getArticleStoreMaxSnapshots());
+
+        restoreSnapshots();
+    }
+
+    public static FeedRepository getFeedRepository () {
+        return feedRepository;
+    }
+
+    private final SharedFeedLoader.Fetcher<NewsFeed> newsFetcher = new SharedFeedLoader.Fetcher<NewsFeed>() {
+        @Override
+        public NewsFeed fetch(String feedUrl) throws FileReaderException {
+            return new NewsRSSFeedParser(feedUrl).readFeed(propertyReader.getNewsItemLimit());
+        }
+    };
+
+    private final SharedFeedLoader.Fetcher<RatesFeed> ratesFetcher = new SharedFeedLoader.Fetcher<RatesFeed>() {
+        @Override
+        public RatesFeed fetch(String feedUrl) throws FileReaderException {
+            return new RatesRSSFeedParser(feedUrl).readFeed();
+        }
+    };
+
+    /*
+     * The feed from the shared table when there is one, otherwise straight from upstream.
+     */
+    private static <F> SnapshotFileStore.Stored<F> fetch(String feedUrl, SharedFeedLoader<F> shared,
+                                                         SharedFeedLoader.Fetcher<F> upstream) throws FileReaderException {
+        if (shared != null) {
+            return shared.load(feedUrl);
+        }
+        return new SnapshotFileStore.Stored<F>(upstream.fetch(feedUrl), System.currentTimeMillis());
+    }
+
+    private static DynamoSnapshotStore createSharedStore() {
+        String table = propertyReader.getSharedSnapshotTable();
+        if (table.isEmpty()) {
+            return null;
+        }
+        // Fail fast like a feed download would; the store falls back to fetching on any failure
+        AmazonDynamoDBClient client = new AmazonDynamoDBClient(new ClientConfiguration()
+                .withConnectionTimeout(propertyReader.getFeedConnectTimeoutMillis())
+                .withSocketTimeout(propertyReader.getFeedReadTimeoutMillis())
+                .withMaxErrorRetry(1));
+        client.setRegion(Region.getRegion(Regions.fromName(propertyReader.getSharedSnapshotRegion())));
+        String endpoint = propertyReader.getSharedSnapshotEndpoint();
+        if (!endpoint.isEmpty()) {
+            client.setEndpoint(endpoint);
+        }
+        log.info("Sharing feed snapshots through the DynamoDB table " + table);
+        return new DynamoSnapshotStore(client, table, propertyReader.getSharedSnapshotLeaseSeconds());
+    }
+
+    /*
+     * Seeds the caches from the snapshot files left by an earlier container. The restored
+     * snapshots are stale, so the first request for each starts a background refresh.
+     */
+    private void restoreSnapshots() {
+        for (Map.Entry<String, String> city : propertyReader.getNewsCityFeedUrls().entrySet()) {
+            SnapshotFileStore.Stored<NewsFeed> stored = snapshotStore.load(city.getValue(), SnapshotFileStore.NEWS_CODEC);
+            if (stored != null) {
+                getCityNewsFeeds().seed(city.getKey(), ingestNewsFeed(stored.getFeed(), stored.getFetchedAt(), true));
+                log.info("Restored the " + city.getKey() + " news snapshot fetched at " + stored.getFetchedAt());
+            }
+        }
+        String ratesFeedUrl = propertyReader.getRatesFeedUrl();
+        SnapshotFileStore.Stored<RatesFeed> stored = snapshotStore.load(ratesFeedUrl, SnapshotFileStore.RATES_CODEC);
+        if (stored != null) {
+            ratesFeedCache.seed(ratesFeedUrl, ingestRatesFeed(stored.getFeed(), stored.getFetchedAt(), true));
+            log.info("Restored the rates snapshot fetched at " + stored.getFetchedAt());
+        }
+    }
+
+    /**
+     * Brings the news of every city and the rates up to date, waiting at most the budget, and puts
+     * the fresh snapshots in the article stores so their pages are ready for the sessions that
+     * read them. Returns the number of feeds that are still not fresh.
+     */
+    public int refreshAll(long budgetMillis) {
+        long deadline = System.currentTimeMillis() + budgetMillis;
+        String ratesFeedUrl = propertyReader.getRatesFeedUrl();
+        Future<?> ratesRefresh = ratesFeedCache.startRefreshIfStale(ratesFeedUrl);
+
+        CityNewsFeeds feeds = getCityNewsFeeds();
+        int behind = feeds.refreshAll(budgetMillis);
+        try {
+            ratesRefresh.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            RatesSnapshot rates = ratesFeedCache.peek(ratesFeedUrl);
+            if (rates != null) {
+                ratesArticles.put(rates);
+            }
+        } catch (TimeoutException e) {
+            log.warn("The rates from " + ratesFeedUrl + " were not refreshed within " + budgetMillis + " ms");
+            behind++;
+        } catch (ExecutionException e) {
+            log.warn("Could not refresh the rates from " + ratesFeedUrl, e.getCause());
+            behind++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            behind++;
+        }
+
+        // Read what the refresh left in the caches; getting a snapshot could start another refresh
+        for (String city : feeds.getCities()) {
+            NewsSnapshot snapshot = feeds.getCachedSnapshot(city);
+            if (snapshot != null) {
+                newsArticles.put(snapshot);
+            }
+        }
+        return behind;
+    }
+
+    /**
+     * The news feeds of the configured cities. A reload that changes the cities or their feed URLs
+     * takes effect here on the next call; only that call takes a lock.
+     */
+    public CityNewsFeeds getCityNewsFeeds () {
+        SkillConfiguration configuration = propertyReader.getConfiguration();
+        if (configuration != cityNewsConfiguration) {
+            synchronized (this) {
+                if (configuration != cityNewsConfiguration) {
+                    cityNewsFeeds = cityNewsFeeds.reconfigure(configuration.getNewsCityFeedUrls(),
+                            configuration.getNewsDefaultCity());
+                    cityNewsConfiguration = configuration;
+                }
+            }
+        }
+        return cityNewsFeeds;
+    }
+
+    /**
+     * True when the news snapshot is older than the cache TTL or was restored from storage, so an
+     * answer from it should say how old it is.
+     */
+    public boolean isNewsOutdated(NewsSnapshot snapshot) {
+        return isOutdated(snapshot, propertyReader.getNewsCacheTtlSeconds());
+    }
+
+    public boolean isRatesOutdated(RatesSnapshot snapshot) {
+        return isOutdated(snapshot, propertyReader.getRatesCacheTtlSeconds());
+    }
+
+    private static boolean isOutdated(FeedSnapshot<?> snapshot, int ttlSeconds) {
+        return snapshot.isStale()
+                || System.currentTimeMillis() - snapshot.getFetchedAt() >= TimeUnit.SECONDS.toMillis(ttlSeconds);
+    }
+
+    /**
+     * The current news snapshot for the city. It is kept in the article store so a session that
+     * starts reading it can come back to it by version.
+     */
+    public NewsSnapshot getNewsSnapshot(String city) throws FileReaderException {
+        NewsSnapshot snapshot = getCityNewsFeeds().getSnapshot(city, propertyReader.getLatencyBudgetMillis());
+        log.debug("News feed cache stats for " + city + " :- " + getCityNewsFeeds().getCache(city));
+        if (snapshot.isStale()) {
+            log.info("Serving the stored " + city + " news snapshot fetched at " + snapshot.getFetchedAt());
+        }
+        newsArticles.put(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * The news snapshot a session is reading, rebuilt when it is no longer held.
+     */
+    public NewsSnapshot getNewsSnapshot(String city, String version) throws FileReaderException {
+        NewsSnapshot snapshot = newsArticles.get(city, version);
+        log.debug("News article store :- " + newsArticles);
+        return snapshot;
+    }
+
+    /**
+     * True when the rates are cached, so getting the rates snapshot does not wait on the network.
+     */
+    public boolean isRatesCached() {
+        return ratesFeedCache.isCached(propertyReader.getRatesFeedUrl());
+    }
+
+    /**
+     * The current rates snapshot, kept in the article store like the news snapshots.
+     */
+    public RatesSnapshot getRatesSnapshot() throws FileReaderException {
+        RatesSnapshot snapshot = ratesFeedCache.get(propertyReader.getRatesFeedUrl(), propertyReader.getLatencyBudgetMillis());
+        if (snapshot.isStale()) {
+            log.info("Serving the stored rates snapshot fetched at " + snapshot.getFetchedAt());
+        }
+        ratesArticles.put(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * The rates snapshot a session is reading, rebuilt when it is no longer held.
+     */
+    public RatesSnapshot getRatesSnapshot(String version) throws FileReaderException {
+        RatesSnapshot snapshot = ratesArticles.get(propertyReader.getRatesFeedUrl(), version);
+        log.debug("Rates article store :- " + ratesArticles);
+        return snapshot;
+    }
+
+    /**
+     * Turns a news feed into a snapshot: the article bodies to read, stripped of their HTML and
+     * split into speech sized segments, their rendered pages, and the keyword index over the
+     * articles. A long article spans several "next" turns.
+     */
+    static NewsSnapshot ingestNewsFeed(NewsFeed newsFeed, long fetchedAt, boolean stale) {
+        return ingestNewsFeed(newsFeed, fetchedAt, stale, articleChunker, newsIndexBuilder);
+    }
+
+    /**
+     * Like {@link #ingestNewsFeed(NewsFeed, long, boolean)}, with the given chunker and index
+     * builder instead of the shared ones, for feeds such as the priming fixtures whose articles
+     * must not take the place of real ones in the shared builder.
+     */
+    static NewsSnapshot ingestNewsFeed(NewsFeed newsFeed, long fetchedAt, boolean stale, SpeechChunker chunker,
+                                       NewsIndex.Builder indexBuilder) {
+        List<String> segments = new ArrayList<String>();
+        List<Integer> segmentArticles = new ArrayList<Integer>();
+        List<String> titles = new ArrayList<String>();
+        List<String> descriptions = new ArrayList<String>();
+        List<String> bodies = new ArrayList<String>();
+        int[] firstItems = new int[newsFeed.getMessages().size()];
+        for (NewsFeedMessage message : newsFeed.getMessages()) {
+            String article = SsmlSanitizer.sanitize(message.getEncodedContent());
+            if (!article.isEmpty()) {
+                firstItems[bodies.size()] = segments.size();
+                titles.add(SsmlSanitizer.sanitize(message.getTitle()));
+                descriptions.add(SsmlSanitizer.sanitize(message.getDescription()));
+                bodies.add(article);
+                for (String segment : chunker.chunk(article)) {
+                    segments.add(segment);
+                    segmentArticles.add(bodies.size() - 1);
+                }
+            }
+        }
+        // "Next news" goes between articles, not between the segments of one article
+        int[] articles = new int[segmentArticles.size()];
+        for (int i = 0; i < articles.length; i++) {
+            articles[i] = segmentArticles.get(i);
+        }
+        SpeechPages pages = SpeechPages.render(segments, articles, pageBudget, NEWS_SEPARATOR, NEWS_MORE_PROMPT);
+        NewsIndex index = indexBuilder.build(titles, descriptions, bodies);
+        log.debug("News index :- " + indexBuilder);
+        return new NewsSnapshot(newsFeed, segments, pages, index, titles, Arrays.copyOf(firstItems, bodies.size()),
+                fetchedAt, stale);
+    }
+
+    /**
+     * Turns a rates feed into a snapshot: the rates in compact form, one sentence per rate, their
+     * rendered pages and the index used to look rates up by name.
+     */
+    static RatesSnapshot ingestRatesFeed(RatesFeed feed, long fetchedAt, boolean stale) {
+        return RatesSnapshot.of(feed, propertyReader.getRateAliases(), pageBudget, RATES_SEPARATOR, RATES_MORE_PROMPT,
+                fetchedAt, stale);
+    }
+}
@@ -0,0 +1,113 @@
+/**
+    Copyright  */
+package main.java.com.meridian.alexa.skill;
+
+import com.amazon.speech.json.SpeechletRequestEnvelope;
+import com.amazon.speech.speechlet.IntentRequest;
+import com.amazon.speech.speechlet.SpeechletResponse;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Maps intent names to their handlers, resolved with one hash lookup per request.
+ *
+ * <p>Handlers are registered while the speechlet is constructed and the map is only read after
+ * that. Every registered intent, and the fallback, counts its invocations and the times it ran
+ * over its latency budget.
+ */
+public class IntentRegistry {
+
+    /**
+     * Handles one intent.
+     */
+    public interface Handler {
+        SpeechletResponse handle(SpeechletRequestEnvelope<IntentRequest> requestEnvelope);
+    }
+
+    /**
+     * Name the fallback's invocations are counted under.
+     */
+    public static final String UNKNOWN_INTENT = "unknown";
+
+    private final Map<String, Registration> registrations = new LinkedHashMap<String, Registration>();
+    private Registration fallback;
+
+    public IntentRegistry register(String intentName, Handler handler) {
+        registrations.put(intentName, new Registration(handler));
+        return this;
+    }
+
+    /**
+     * Handler for intents that are not registered.
+     */
+    public IntentRegistry setFallback(Handler handler) {
+        fallback = new Registration(handler);
+        return this;
+    }
+
+    public SpeechletResponse dispatch(SpeechletRequestEnvelope<IntentRequest> requestEnvelope) {
+        Registration registration = registrations.get(requestEnvelope.getRequest().getIntent().getName());
+        if (registration == null) {
+            registration = fallback;
+        }
+        registration.invocations.incrementAndGet();
+        return registration.handler.handle(requestEnvelope);
+    }
+
+    /**
+     * Counts a request for the intent that could not be answered within the latency budget.
+     */
+    public void countBudgetOverrun(String intentName) {
+        Registration registration = registrations.get(intentName);
+        if (registration == null) {
+            registration = fallback;
+        }
+        registration.budgetOverruns.incrementAndGet();
+    }
+
+    /**
+     * Invocations per intent name, with the fallback's under {@link #UNKNOWN_INTENT}.
+     */
+    public Map<String, Long> getInvocationCounts () {
+        Map<String, Long> counts = new LinkedHashMap<String, Long>();
+        for (Map.Entry<String, Registration> entry : registrations.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().invocations.get());
+        }
+        if (fallback != null) {
+            counts.put(UNKNOWN_INTENT, fallback.invocations.get());
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * Latency budget overruns per intent name, for the intents that had any.
+     */
+    public Map<String, Long> getBudgetOverrunCounts () {
+        Map<String, Long> counts = new LinkedHashMap<String, Long>();
+        for (Map.Entry<String, Registration> entry : registrations.entrySet()) {
+            long overruns = entry.getValue().budgetOverruns.get();
+            if (overruns > 0) {
+                counts.put(entry.getKey(), overruns);
+            }
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    @Override
+    public String toString() {
+        return "IntentRegistry " + getInvocationCounts() + ", budget overruns " + getBudgetOverrunCounts();
+    }
+
+    private static final class Registration {
+        final Handler handler;
+        final AtomicLong invocations = new AtomicLong();
+        final AtomicLong budgetOverruns = new AtomicLong();
+
+        Registration (Handler handler) {
+            this.handler = handler;
+        }
+    }
+}
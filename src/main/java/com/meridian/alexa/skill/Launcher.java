@@ -0,0 +1,122 @@
+/**
+    Copyright  */
+package main.java.com.meridian.alexa.skill;
+
+import com.amazon.speech.Sdk;
+import com.amazon.speech.speechlet.servlet.SpeechletServlet;
+import main.java.com.meridian.utilities.FeedHttpClient;
+import main.java.com.meridian.utilities.PropertyReader;
+import main.java.com.meridian.utilities.SkillConfiguration;
+import main.java.com.meridian.utilities.main.java.com.meridian.utilities.ctc.CallServlet;
+import main.java.com.meridian.utilities.main.java.com.meridian.utilities.ctc.ConnectServlet;
+import main.java.com.meridian.utilities.main.java.com.meridian.utilities.ctc.UndefinedEnvironmentVariableException;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.SecureRequestCustomizer;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.SslConnectionFactory;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves the skill from an embedded Jetty server instead of Lambda, next to the click to call
+ * servlets, so it can run as any number of identical instances behind a load balancer.
+ * <p>
+ * With {@code javax.net.ssl.keyStore} set the server speaks HTTPS with the cipher suites Alexa
+ * accepts; without it, plain HTTP for a load balancer that terminates TLS. Requests run on a
+ * bounded pool whose queue is bounded too, both sized by the {@code server-*} properties, so an
+ * overloaded instance turns requests away rather than answering them after Alexa gave up.
+ */
+public final class Launcher {
+    private static final Logger log = LoggerFactory.getLogger(Launcher.class);
+
+    private static final String HTTPS_SCHEME = "https";
+
+    private Launcher () {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        PropertyReader propertyReader = PropertyReader.getPropertyReader();
+        FeedHttpClient.configureKeepAlive(propertyReader);
+        SkillConfiguration configuration = propertyReader.getConfiguration();
+        Server server = createServer(configuration);
+        server.start();
+        // A long running server pays for this once; in Lambda the scheduled warm-up does it instead
+        FeedRepository.getFeedRepository().getCityNewsFeeds().warmAll();
+        log.info("Serving the skill at " + configuration.getServerSkillPath() + " on port " + configuration.getServerPort());
+        server.join();
+    }
+
+    /**
+     * Builds the server for the configuration, ready to start.
+     */
+    public static Server createServer(SkillConfiguration configuration) {
+        QueuedThreadPool threadPool = new QueuedThreadPool(configuration.getServerMaxThreads(),
+                configuration.getServerMinThreads(), configuration.getServerIdleTimeoutMillis(),
+                new BlockingArrayQueue<Runnable>(configuration.getServerMinThreads(),
+                        configuration.getServerMinThreads(), configuration.getServerQueueCapacity()));
+        threadPool.setName("news-wizard-server");
+        Server server = new Server(threadPool);
+        server.setStopAtShutdown(true);
+        server.setConnectors(new Connector[] {createConnector(server, configuration)});
+
+        // The servlet checks requests against this system property; default it like the Lambda handler does
+        String applicationIds = System.getProperty(Sdk.SUPPORTED_APPLICATION_IDS_SYSTEM_PROPERTY);
+        if (applicationIds == null || applicationIds.trim().isEmpty()) {
+            System.setProperty(Sdk.SUPPORTED_APPLICATION_IDS_SYSTEM_PROPERTY, configuration.getSkillId());
+        }
+
+        ServletContextHandler context = new ServletContextHandler(ServletContextHandler.NO_SESSIONS);
+        context.setContextPath("/");
+        SpeechletServlet speechletServlet = new SpeechletServlet();
+        speechletServlet.setSpeechlet(SkillInitializer.createSpeechlet(configuration.isPrimeOnInit()));
+        context.addServlet(new ServletHolder(speechletServlet), configuration.getServerSkillPath());
+        addClickToCall(context);
+        server.setHandler(context);
+        return server;
+    }
+
+    private static ServerConnector createConnector(Server server, SkillConfiguration configuration) {
+        HttpConfiguration httpConfiguration = new HttpConfiguration();
+        ServerConnector connector;
+        String keyStore = System.getProperty("javax.net.ssl.keyStore");
+        if (keyStore != null && !keyStore.trim().isEmpty()) {
+            SslContextFactory sslContextFactory = new SslContextFactory();
+            sslContextFactory.setKeyStorePath(keyStore);
+            sslContextFactory.setKeyStorePassword(System.getProperty("javax.net.ssl.keyStorePassword"));
+            sslContextFactory.setIncludeCipherSuites(Sdk.SUPPORTED_CIPHER_SUITES);
+
+            httpConfiguration.setSecurePort(configuration.getServerPort());
+            httpConfiguration.setSecureScheme(HTTPS_SCHEME);
+            httpConfiguration.addCustomizer(new SecureRequestCustomizer());
+            connector = new ServerConnector(server, new SslConnectionFactory(sslContextFactory, "http/1.1"),
+                    new HttpConnectionFactory(httpConfiguration));
+        } else {
+            log.warn("No javax.net.ssl.keyStore is set, serving plain HTTP for a proxy that terminates TLS");
+            connector = new ServerConnector(server, new HttpConnectionFactory(httpConfiguration));
+        }
+        connector.setPort(configuration.getServerPort());
+        connector.setIdleTimeout(configuration.getServerIdleTimeoutMillis());
+        return connector;
+    }
+
+    /*
+     * The click to call servlets need the Twilio settings from the environment; without them the
+     * skill is served on its own.
+     */
+    private static void addClickToCall(ServletContextHandler context) {
+        try {
+            context.addServlet(new ServletHolder(new CallServlet()), "/call");
+            context.addServlet(new ServletHolder(new ConnectServlet()), "/connect/*");
+        } catch (UndefinedEnvironmentVariableException e) {
+            log.warn("Click to call is off, " + e.getMessage());
+        }
+    }
+}
@@ -8,17 +8,16 @@ import com.amazon.speech.slu.Slot;
 import com.amazon.speech.speechlet.*;
 import com.amazon.speech.speechlet.interfaces.system.SystemInterface;
 import com.amazon.speech.speechlet.interfaces.system.SystemState;
-import com.amazon.speech.speechlet.services.DirectiveEnvelope;
-import com.amazon.speech.speechlet.services.DirectiveEnvelopeHeader;
 import com.amazon.speech.speechlet.services.DirectiveService;
-import com.amazon.speech.speechlet.services.SpeakDirective;
 import com.amazon.speech.ui.*;
+import main.java.com.meridian.exception.DeadlineExceededException;
 import main.java.com.meridian.exception.FileReaderException;
 import main.java.com.meridian.utilities.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
 
 
 /**
@@ -78,17 +77,30 @@ public class NewsWizardSpeechlet implements SpeechletV2 {
     private static final Logger log = LoggerFactory.getLogger(NewsWizardSpeechlet.class);
     private static PropertyReader propertyReader = PropertyReader.getPropertyReader();
 
+    /**
+     * Names of the intents that read feeds.
+     */
+    private static final String GET_NEWS_INTENT = "GetNewsEventIntent";
+    private static final String GET_RATES_INTENT = "GetRatesEventIntent";
+    private static final String NEXT_NEWS_INTENT = "GetNextNewsEventIntent";
+    private static final String NEXT_RATES_INTENT = "GetNextRatesEventIntent";
+    private static final String RATE_FOR_INTENT = "GetRateForIntent";
+    private static final String SEARCH_NEWS_INTENT = "SearchNewsIntent";
+
     /**
      * The key to get the item from the intent.
      */
     private static final String NAME_SLOT = "intentname";
 
     /**
-     * Constant defining number of events to be read at one time.
+     * The key to get the city from the news intent.
      */
-    private final int PAGINATION_SIZE = 1;
+    private static final String CITY_SLOT = "city";
 
-    private final int ARTICLE_WORD_SIZE = 100;
+    /**
+     * The key to get the topic from the news search intent.
+     */
+    private static final String TOPIC_SLOT = "topic";
 
     /**
      * Length of the delimiter between individual events.
@@ -102,23 +114,34 @@ public class NewsWizardSpeechlet implements SpeechletV2 {
     private static final String SESSION_RATES_INDEX = "rates-index";
 
     /**
-     * Constant defining session attribute key for the event text key for date of events.
+     * Constant defining session attribute keys for the city and snapshot version being read. The
+     * articles themselves stay in the feed repository's article store.
      */
-    private static final String SESSION_TEXT = "text";
+    private static final String SESSION_CITY = "city";
+    private static final String SESSION_VERSION = "version";
+    private static final String SESSION_RATES_VERSION = "rates-version";
 
-    private static final String SESSION_RATES_TEXT = "rates";
 
+    /**
+     * Service to send progressive response directives.
+     */
+    private DirectiveService directiveService;
 
     /**
-     * Size of events from Wikipedia response.
+     * Sends progressive responses alongside the feed fetch.
      */
-    private final int LENGTH_OF_NEWS = 20;
+    private final ProgressiveResponseDispatcher progressiveResponses;
 
+    /**
+     * The configured text of the fixed responses, read once per configuration and kept until a
+     * reload changes the configuration.
+     */
+    private static volatile ConfiguredResponses configuredResponses;
 
     /**
-     * Service to send progressive response directives.
+     * Handlers by intent name.
      */
-    private DirectiveService directiveService;
+    private final IntentRegistry intentRegistry;
 
     /**
      * Constructs an instance of {@link NewsWizardSpeechlet}.
@@ -127,6 +150,82 @@ public class NewsWizardSpeechlet implements SpeechletV2 {
      */
     public NewsWizardSpeechlet (DirectiveService directiveService) {
         this.directiveService = directiveService;
+        this.progressiveResponses = new ProgressiveResponseDispatcher(directiveService,
+                propertyReader.getProgressiveResponseThreads(), propertyReader.getProgressiveResponseTimeoutMillis());
+        this.intentRegistry = newIntentRegistry();
+    }
+
+    private IntentRegistry newIntentRegistry() {
+        IntentRegistry.Handler goodBye = new IntentRegistry.Handler() {
+            @Override
+            public SpeechletResponse handle(SpeechletRequestEnvelope<IntentRequest> requestEnvelope) {
+                return configuredResponses().goodBye();
+            }
+        };
+        return new IntentRegistry()
+                .register(GET_NEWS_INTENT, new IntentRegistry.Handler() {
+                    @Override
+                    public SpeechletResponse handle(SpeechletRequestEnvelope<IntentRequest> requestEnvelope) {
+                        return handleGetNewsEventRequest(requestEnvelope);
+                    }
+                })
+                .register(GET_RATES_INTENT, new IntentRegistry.Handler() {
+                    @Override
+                    public SpeechletResponse handle(SpeechletRequestEnvelope<IntentRequest> requestEnvelope) {
+                        return handleGetRatesEventRequest(requestEnvelope);
+                    }
+                })
+                .register(NEXT_NEWS_INTENT, new IntentRegistry.Handler() {
+                    @Override
+                    public SpeechletResponse handle(SpeechletRequestEnvelope<IntentRequest> requestEnvelope) {
+                        return handleNextNewsEventRequest(requestEnvelope.getSession());
+                    }
+                })
+                .register(NEXT_RATES_INTENT, new IntentRegistry.Handler() {
+                    @Override
+                    public SpeechletResponse handle(SpeechletRequestEnvelope<IntentRequest> requestEnvelope) {
+                        return handleNextRatesEventRequest(requestEnvelope.getSession());
+                    }
+                })
+                .register(RATE_FOR_INTENT, new IntentRegistry.Handler() {
+                    @Override
+                    public SpeechletResponse handle(SpeechletRequestEnvelope<IntentRequest> requestEnvelope) {
+                        return handleRateForIntentEventRequest(requestEnvelope.getRequest().getIntent(), requestEnvelope.getSession());
+                    }
+                })
+                .register(SEARCH_NEWS_INTENT, new IntentRegistry.Handler() {
+                    @Override
+                    public SpeechletResponse handle(SpeechletRequestEnvelope<IntentRequest> requestEnvelope) {
+                        return handleSearchNewsEventRequest(requestEnvelope.getRequest().getIntent(), requestEnvelope.getSession());
+                    }
+                })
+                .register("Birth", new IntentRegistry.Handler() {
+                    @Override
+                    public SpeechletResponse handle(SpeechletRequestEnvelope<IntentRequest> requestEnvelope) {
+                        return configuredResponses().birth();
+                    }
+                })
+                .register("AMAZON.HelpIntent", new IntentRegistry.Handler() {
+                    @Override
+                    public SpeechletResponse handle(SpeechletRequestEnvelope<IntentRequest> requestEnvelope) {
+                        return configuredResponses().help();
+                    }
+                })
+                .register("AMAZON.StopIntent", goodBye)
+                .register("AMAZON.CancelIntent", goodBye)
+                .setFallback(new IntentRegistry.Handler() {
+                    @Override
+                    public SpeechletResponse handle(SpeechletRequestEnvelope<IntentRequest> requestEnvelope) {
+                        return configuredResponses().sorry();
+                    }
+                });
+    }
+
+    /**
+     * Handlers by intent name, with their invocation counts.
+     */
+    public IntentRegistry getIntentRegistry () {
+        return intentRegistry;
     }
 
 
@@ -137,10 +236,6 @@ public class NewsWizardSpeechlet implements SpeechletV2 {
 
         log.info("onSessionStarted requestId={}, sessionId={}", request.getRequestId(),
                 session.getSessionId());
-
-        // any further initialization logic goes here
-        // cant think of any. May be reading the RSS?
-        //todo
     }
 
     @Override
@@ -158,7 +253,7 @@ public class NewsWizardSpeechlet implements SpeechletV2 {
 
         log.debug(" Launch Action " );
 
-        return getWelcomeResponse();
+        return configuredResponses().welcome();
 
     }
 
@@ -170,37 +265,9 @@ public class NewsWizardSpeechlet implements SpeechletV2 {
         String intentName = requestEnvelope.getRequest().getIntent().getName();
         log.debug("Intent name is : - " + intentName);
 
-        if ("GetNewsEventIntent".equals(intentName)) {
-            return handleGetNewsEventRequest(requestEnvelope);
-        } else if ("GetRatesEventIntent".equals(intentName)) {
-            return handleGetRatesEventRequest(requestEnvelope);
-        } else if ("GetNextNewsEventIntent".equals(intentName)) {
-            return handleNextNewsEventRequest(requestEnvelope.getSession());
-        } else if ("GetNextRatesEventIntent".equals(intentName)) {
-            return handleNextRatesEventRequest(requestEnvelope.getSession());
-        } else if ("GetRateForIntent".equals(intentName)) {
-            return handleRateForIntentEventRequest(requestEnvelope.getRequest().getIntent(), requestEnvelope.getSession());
-        } else if ("Birth".equals(intentName)) {
-            return handleBirthEventRequest(requestEnvelope);
-        } else if ("AMAZON.HelpIntent".equals(intentName)) {
-            return  newAskResponse(propertyReader.getSpeechHelp(), false, "", false);
-        } else if ("AMAZON.StopIntent".equals(intentName)) {
-            PlainTextOutputSpeech outputSpeech = new PlainTextOutputSpeech();
-            outputSpeech.setText(propertyReader.getGoodBye());
-            log.debug(propertyReader.getGoodBye());
-            return SpeechletResponse.newTellResponse(outputSpeech);
-        } else if ("AMAZON.CancelIntent".equals(intentName)) {
-            PlainTextOutputSpeech outputSpeech = new PlainTextOutputSpeech();
-            outputSpeech.setText(propertyReader.getGoodBye());
-            return SpeechletResponse.newTellResponse(outputSpeech);
-        } else {
-            String outputSpeech = propertyReader.getSpeechSorry();
-            String repromptText = propertyReader.getSpeechReprompt();
-            log.debug(propertyReader.getSpeechSorry());
-            log.debug(propertyReader.getSpeechReprompt());
-
-            return newAskResponse(outputSpeech, true, repromptText, true);
-        }
+        SpeechletResponse response = intentRegistry.dispatch(requestEnvelope);
+        log.debug("Intent invocations :- {}", intentRegistry);
+        return response;
     }
 
     private SpeechletResponse handleGetRatesEventRequest (SpeechletRequestEnvelope<IntentRequest> requestEnvelope) {
@@ -209,13 +276,20 @@ public class NewsWizardSpeechlet implements SpeechletV2 {
         Session session = requestEnvelope.getSession();
         SystemState systemState = getSystemState(requestEnvelope.getContext());
         String apiEndpoint = systemState.getApiEndpoint();
-        // Dispatch a progressive response to engage the user while fetching events
-        dispatchProgressiveResponse(request.getRequestId(), "Rates may be delayed by 20 minutes", systemState, apiEndpoint);
+        // Engage the user with a progressive response while the events are fetched, unless they are cached
+        Future<?> progressive = null;
+        if (feedRepository().isRatesCached()) {
+            progressiveResponses.skip();
+        } else {
+            progressive = progressiveResponses.dispatch(request.getRequestId(), "Rates may be delayed by 20 minutes", systemState, apiEndpoint);
+        }
         String speechOutput = "";
 
-        ArrayList<String> events = null;
+        RatesSnapshot snapshot;
         try {
-            events = getJsonEventsFromRatesFeed();
+            snapshot = feedRepository().getRatesSnapshot();
+        } catch (DeadlineExceededException e) {
+            return newBudgetOverrunResponse(GET_RATES_INTENT, "rates", e);
         } catch (FileReaderException e) {
             speechOutput =
                     "There is a problem connecting to the Rates Feed at this time."
@@ -227,8 +301,11 @@ public class NewsWizardSpeechlet implements SpeechletV2 {
             log.debug("Say --- " + speechOutput);
 
             return SpeechletResponse.newTellResponse(outputSpeech);
+        } finally {
+            progressiveResponses.finish(progressive);
+            log.debug("Progressive responses :- {}", progressiveResponses);
         }
-        if (events.isEmpty()) {
+        if (snapshot.getPages().isEmpty()) {
             speechOutput =
                     "There is a problem connecting to the Rates Feed at this time."
                             + " Please try again later.";
@@ -239,67 +316,21 @@ public class NewsWizardSpeechlet implements SpeechletV2 {
 
             return SpeechletResponse.newTellResponse(outputSpeech);
         } else {
-            StringBuilder speechOutputBuilder = new StringBuilder();
-//            speechOutputBuilder.append("Latest News");
-            StringBuilder cardOutputBuilder = new StringBuilder();
-//            cardOutputBuilder.append("Latest News");
-            String articleBuffer = "";
-            boolean splitArticle = false;
-            int articleSize = 0;
-
-            log.debug("Pagination set to :- " + PAGINATION_SIZE);
-
-            for (int i = 0; i < PAGINATION_SIZE; i++) {
-                splitArticle = false;
-                articleSize = 0;
-                articleBuffer = events.get(i);
-                if (articleBuffer != null && !articleBuffer.isEmpty()) {
-                    articleSize = articleBuffer.length();
-                    if (articleSize > ARTICLE_WORD_SIZE) {
-                        splitArticle = true;
-                        //Read Split Article
-                    }
-                    speechOutputBuilder.append("<p>");
-                    speechOutputBuilder.append(events.get(i));
-                    if (i < PAGINATION_SIZE - 1) {
-                        speechOutputBuilder.append("Next Rate");
-                    }
-                    speechOutputBuilder.append("</p> ");
-
-                    cardOutputBuilder.append(events.get(i));
-                    if (i < PAGINATION_SIZE - 1) {
-                        cardOutputBuilder.append("Next rate");
-                    }
-                    cardOutputBuilder.append("\n");
-                    //todo say next news. Create some division between news
-                }
-            }
-
-            log.debug("After Pagination, cardOutputBuilder set to :- " + cardOutputBuilder);
-
-            speechOutputBuilder.append("Say Next Rate if you would like to hear more rates?");
-            cardOutputBuilder.append("Say Next Rate if you would like to hear more rates?");
-            speechOutput = speechOutputBuilder.toString();
-
             String repromptText = "I can get the latest real estate rates that you care for. " +
                     "If you would like me to read the latest real estate rates say Read Rates or get rates?" +
                     "You could also say Prime, swap, LYEBER or Treasury";
 
-            // Create the Simple card content.
-            SimpleCard card = new SimpleCard();
-            card.setTitle("meridian rates");
-            card.setContent(cardOutputBuilder.toString());
-
-            // After reading the first 3 events, set the count to 3 and add the events
-            // to the session attributes
-            session.setAttribute(SESSION_RATES_INDEX, PAGINATION_SIZE);
-            session.setAttribute(SESSION_RATES_TEXT, events);
+            // The first page was rendered when the snapshot was ingested; remember where we are
+            session.setAttribute(SESSION_RATES_INDEX, 1);
+            session.setAttribute(SESSION_RATES_VERSION, snapshot.getVersion());
 
             log.debug("ABOUT to call back for the dynamic response");
 
-            SpeechletResponse response = newAskResponse("<speak>" + speechOutput + "</speak>", true, repromptText, false);
-            response.setCard(card);
-            return response;
+            SpeechPage page = snapshot.getPages().get(0);
+            if (propertyReader.isAsOfWording() && feedRepository().isRatesOutdated(snapshot)) {
+                page = page.withPrefix(speakAsOf(snapshot));
+            }
+            return newPageResponse(page, "meridian rates", repromptText);
         }
     }
 
@@ -315,12 +346,11 @@ public class NewsWizardSpeechlet implements SpeechletV2 {
     }
 
     /**
-     * Function to handle the onLaunch skill behavior.
+     * Function to build the onLaunch skill response.
      *
      * @return SpeechletResponse object with voice/card response to return to the user
      */
-    private SpeechletResponse getWelcomeResponse() {
-        String speechOutput = propertyReader.getWelcomeMessage();
+    private static SpeechletResponse newWelcomeResponse(String speechOutput) {
         // If the user either does not reply to the welcome message or says something that is not
         // understood, they will be prompted again with this text.
         String repromptText = "If you would like me to read your news say Read News or get news. " +
@@ -333,18 +363,11 @@ public class NewsWizardSpeechlet implements SpeechletV2 {
 
 
     /**
+     * Function to build the Birth intent response.
      *
-     * @param requestEnvelope
-     *            the intent request envelope to handle
      * @return SpeechletResponse object with voice/card response to return to the user
      */
-
-    private SpeechletResponse handleBirthEventRequest(SpeechletRequestEnvelope<IntentRequest> requestEnvelope) {
-
-        IntentRequest request = requestEnvelope.getRequest();
-        Session session = requestEnvelope.getSession();
-        SystemState systemState = getSystemState(requestEnvelope.getContext());
-        String apiEndpoint = systemState.getApiEndpoint();
+    private static SpeechletResponse newBirthResponse() {
         String speechOutput = "I was launched on May 5th 2018 by Malhotra Consulting and Cosmos Communications. " +
                 "If you would like me to read your news say Read News or get news. You could also say Prime, swap, LYEBER or Treasury";
 
@@ -369,13 +392,29 @@ public class NewsWizardSpeechlet implements SpeechletV2 {
         Session session = requestEnvelope.getSession();
         SystemState systemState = getSystemState(requestEnvelope.getContext());
         String apiEndpoint = systemState.getApiEndpoint();
-        // Dispatch a progressive response to engage the user while fetching events
-        dispatchProgressiveResponse(request.getRequestId(), "Getting you the news", systemState, apiEndpoint);
         String speechOutput = "";
 
-        ArrayList<String> events = null;
+        Slot citySlot = request.getIntent().getSlot(CITY_SLOT);
+        String city = feedRepository().getCityNewsFeeds().resolveCity(citySlot == null ? null : citySlot.getValue());
+        if (city == null) {
+            speechOutput = "Sorry, I do not have news for " + citySlot.getValue() + ". "
+                    + "I can read news for " + feedRepository().getCityNewsFeeds().getSpokenCities() + ".";
+            return newAskResponse(speechOutput, false, propertyReader.getSpeechReprompt(), false);
+        }
+
+        // Engage the user with a progressive response while the events are fetched, unless they are cached
+        Future<?> progressive = null;
+        if (feedRepository().getCityNewsFeeds().isCached(city)) {
+            progressiveResponses.skip();
+        } else {
+            progressive = progressiveResponses.dispatch(request.getRequestId(), "Getting you the news", systemState, apiEndpoint);
+        }
+
+        NewsSnapshot snapshot;
         try {
-            events = getJsonEventsFromNewsFeed();
+            snapshot = feedRepository().getNewsSnapshot(city);
+        } catch (DeadlineExceededException e) {
+            return newBudgetOverrunResponse(GET_NEWS_INTENT, "news", e);
         } catch (FileReaderException e) {
             speechOutput =
                     "There is a problem connecting to the News Feed at this time."
@@ -387,8 +426,11 @@ public class NewsWizardSpeechlet implements SpeechletV2 {
             log.debug("Say --- " + speechOutput);
 
             return SpeechletResponse.newTellResponse(outputSpeech);
+        } finally {
+            progressiveResponses.finish(progressive);
+            log.debug("Progressive responses :- {}", progressiveResponses);
         }
-        if (events.isEmpty()) {
+        if (snapshot.getPages().isEmpty()) {
             speechOutput =
                     "There is a problem connecting to the News Feed at this time."
                             + " Please try again later.";
@@ -399,398 +441,320 @@ public class NewsWizardSpeechlet implements SpeechletV2 {
 
             return SpeechletResponse.newTellResponse(outputSpeech);
         } else {
-            StringBuilder speechOutputBuilder = new StringBuilder();
-//            speechOutputBuilder.append("Latest News");
-            StringBuilder cardOutputBuilder = new StringBuilder();
-//            cardOutputBuilder.append("Latest News");
-            String articleBuffer = "";
-            boolean splitArticle = false;
-            int articleSize = 0;
-
-            log.debug("Pagination set to :- " + PAGINATION_SIZE);
-
-            for (int i = 0; i < PAGINATION_SIZE; i++) {
-                splitArticle = false;
-                articleSize = 0;
-                articleBuffer = events.get(i);
-                if (articleBuffer != null && !articleBuffer.isEmpty()) {
-                    articleSize = articleBuffer.length();
-                    if (articleSize>ARTICLE_WORD_SIZE) {
-                        splitArticle = true;
-                        //Read Split Article
-                    }
-                    speechOutputBuilder.append("<p>");
-                    speechOutputBuilder.append(events.get(i));
-                    if (i<PAGINATION_SIZE-1) {
-                        speechOutputBuilder.append("Next news");
-                    }
-                    speechOutputBuilder.append("</p> ");
-
-                    cardOutputBuilder.append(events.get(i));
-                    if (i<PAGINATION_SIZE-1) {
-                        cardOutputBuilder.append("Next news");
-                    }
-                    cardOutputBuilder.append("\n");
-                    //todo say next news. Create some division between news
-                }
-            }
-
-            log.debug("After Pagination, cardOutputBuilder set to :- " + cardOutputBuilder);
-
-            speechOutputBuilder.append("Do you want hear more?");
-            cardOutputBuilder.append(" Do you want hear more?");
-            speechOutput = speechOutputBuilder.toString();
-
             String repromptText = "If you would like me to read your news say Read News or get news. " +
                     "If you would like me to read the latest real estate rates say Read Rates or get rates? " +
                     "You could also say Prime, swap, LYEBER or Treasury";
 
-            // Create the Simple card content.
-            SimpleCard card = new SimpleCard();
-            card.setTitle("meridian news");
-            card.setContent(cardOutputBuilder.toString());
-
-            // After reading the first 3 events, set the count to 3 and add the events
-            // to the session attributes
-            session.setAttribute(SESSION_INDEX, PAGINATION_SIZE);
-            session.setAttribute(SESSION_TEXT, events);
+            // The first page was rendered when the snapshot was ingested; remember where we are
+            session.setAttribute(SESSION_INDEX, 1);
+            session.setAttribute(SESSION_CITY, city);
+            session.setAttribute(SESSION_VERSION, snapshot.getVersion());
 
             log.debug("ABOUT to call back for the dynamic response");
 
-            SpeechletResponse response = newAskResponse("<speak>" + speechOutput + "</speak>", true, repromptText, false);
-            response.setCard(card);
-            return response;
+            SpeechPage page = snapshot.getPages().get(0);
+            if (propertyReader.isAsOfWording() && feedRepository().isNewsOutdated(snapshot)) {
+                page = page.withPrefix(speakAsOf(snapshot));
+            }
+            return newPageResponse(page, "meridian news", repromptText);
         }
     }
 
     /**
-     * Prepares the speech to reply to the user. Obtains the list of events as well as the current
-     * index from the session attributes. After getting the next set of events, increment the index
-     * and store it back in session attributes. This allows us to obtain new events without making
-     * repeated network calls, by storing values (events, index) during the interaction with the
-     * user.
+     * Prepares the speech to reply to the user. Obtains the snapshot version and the current index
+     * from the session attributes and reads the next page of that snapshot from the article store.
+     * After reading the page, increment the index and store it back in session attributes, so the
+     * session carries a cursor rather than the articles themselves.
      *
      * @param session
-     *            object containing session attributes with events list and index
+     *            object containing session attributes with the snapshot version and index
      * @return SpeechletResponse object with voice/card response to return to the user
      */
     private SpeechletResponse handleNextNewsEventRequest (Session session) {
 
         log.debug("in the next event request");
 
-        String cardTitle = "meridian news";
-        ArrayList<String> events = (ArrayList<String>) session.getAttribute(SESSION_TEXT);
-        int index = (Integer) session.getAttribute(SESSION_INDEX);
-        String speechOutput = "";
-        String cardOutput = "";
-        if (events == null) {
-            speechOutput =
+        String city = (String) session.getAttribute(SESSION_CITY);
+        String version = (String) session.getAttribute(SESSION_VERSION);
+        String repromptText = "Do you want hear more?";
+        if (city == null || version == null) {
+            String speechOutput =
                     "If you would like me to read your news say Read News or get news. " +
                             "If you would like me to read the latest real estate rates say Read Rates or get rates? " +
                             "You could also say Prime, swap, LYEBER or Treasury";
-        } else if (index >= events.size()) {
-            speechOutput =
-                    "There are no more news articles for today.";
-        } else {
-            StringBuilder speechOutputBuilder = new StringBuilder();
-            StringBuilder cardOutputBuilder = new StringBuilder();
-            for (int i = 0; i < PAGINATION_SIZE && index < events.size(); i++) {
-                speechOutputBuilder.append("<p>");
-                speechOutputBuilder.append(events.get(index));
-                if (i<PAGINATION_SIZE-1) {
-                    speechOutputBuilder.append("Next news");
-                }
-                speechOutputBuilder.append("</p> ");
-                cardOutputBuilder.append(events.get(index));
-                if (i<PAGINATION_SIZE-1) {
-                    cardOutputBuilder.append("Next news");
-                }
-                cardOutputBuilder.append(" ");
-                index++;
-            }
-            if (index < events.size()) {
-                speechOutputBuilder.append("Do you want hear more?");
-                cardOutputBuilder.append("Do you want hear more?");
-            }
-            session.setAttribute(SESSION_INDEX, index);
-            speechOutput = speechOutputBuilder.toString();
-            cardOutput = cardOutputBuilder.toString();
+            return newPageResponse(new SpeechPage("<speak>" + speechOutput + "</speak>", "", true), "meridian news", repromptText);
         }
-        String repromptText = "Do you want hear more?";
 
-        // Create the Simple card content.
-        SimpleCard card = new SimpleCard();
-        card.setTitle(cardTitle);
-        card.setContent(cardOutput.toString());
+        NewsSnapshot snapshot;
+        try {
+            snapshot = feedRepository().getNewsSnapshot(city, version);
+        } catch (DeadlineExceededException e) {
+            return newBudgetOverrunResponse(NEXT_NEWS_INTENT, "news", e);
+        } catch (FileReaderException e) {
+            String speechOutput =
+                    "There is a problem connecting to the News Feed at this time."
+                            + " Please try again later.";
 
-        SpeechletResponse response = newAskResponse("<speak>" + speechOutput + "</speak>", true, repromptText, false);
-        response.setCard(card);
-        return response;
+            // Create the plain text output
+            SsmlOutputSpeech outputSpeech = new SsmlOutputSpeech();
+            outputSpeech.setSsml("<speak>" + speechOutput + "</speak>");
+            log.debug("Say --- " + speechOutput);
+
+            return SpeechletResponse.newTellResponse(outputSpeech);
+        }
+
+        int index = nextPageIndex(session, SESSION_INDEX, version, snapshot);
+        SpeechPage page = snapshot.getPages().get(index);
+        if (page == null) {
+            return newPageResponse(new SpeechPage("<speak>There are no more news articles for today.</speak>", "", true),
+                    "meridian news", repromptText);
+        }
+        if (!snapshot.getVersion().equals(version)) {
+            page = page.withPrefix("The news has been updated, so here it is from the top. ");
+        }
+        session.setAttribute(SESSION_INDEX, index + 1);
+        session.setAttribute(SESSION_VERSION, snapshot.getVersion());
+        return newPageResponse(page, "meridian news", repromptText);
     }
 
     /**
-     * Download JSON-formatted list of events from Wikipedia, for a defined day/date, and return a
-     * String array of the events, with each event representing an element in the array.
+     * Finds the article of the city's news that best matches the spoken topic and starts reading
+     * it. The session then points into the snapshot like after Get News, so "next" reads on from
+     * the article found. The city is the one the session is reading, or the default city.
      *
-     * @return String array of events for that date, 1 event per element of the array
+     * @param intent
+     *            the intent with the topic slot
+     * @param session
+     *            object containing session attributes with the city being read
+     * @return SpeechletResponse object with voice/card response to return to the user
      */
+    private SpeechletResponse handleSearchNewsEventRequest (Intent intent, Session session) {
+        log.debug("in the search news request");
+
+        String repromptText = "Do you want hear more?";
+        Slot topicSlot = intent.getSlot(TOPIC_SLOT);
+        String topic = topicSlot == null ? null : topicSlot.getValue();
+        if (topic == null || topic.trim().isEmpty()) {
+            String speechOutput = "What would you like news about? You could say news about office leasing.";
+            return newAskResponse(speechOutput, false, propertyReader.getSpeechReprompt(), false);
+        }
+
+        String city = (String) session.getAttribute(SESSION_CITY);
+        if (city == null) {
+            city = feedRepository().getCityNewsFeeds().resolveCity(null);
+        }
 
-    private ArrayList<String> getJsonEventsFromNewsFeed() throws FileReaderException {
+        NewsSnapshot snapshot;
+        try {
+            snapshot = feedRepository().getNewsSnapshot(city);
+        } catch (DeadlineExceededException e) {
+            return newBudgetOverrunResponse(SEARCH_NEWS_INTENT, "news", e);
+        } catch (FileReaderException e) {
+            String speechOutput =
+                    "There is a problem connecting to the News Feed at this time."
+                            + " Please try again later.";
 
-        ArrayList messages = new ArrayList();
-        NewsRSSFeedParser parser = new NewsRSSFeedParser(propertyReader.getNewsFeedUrl());
-        NewsFeed newsFeed = parser.readFeed();
+            // Create the plain text output
+            SsmlOutputSpeech outputSpeech = new SsmlOutputSpeech();
+            outputSpeech.setSsml("<speak>" + speechOutput + "</speak>");
+            log.debug("Say --- " + speechOutput);
 
-        for (NewsFeedMessage message : newsFeed.getMessages()) {
-            log.debug(" Populating the feed messages in the list :" + message.getEncodedContent());
-            messages.add(message.getEncodedContent());
+            return SpeechletResponse.newTellResponse(outputSpeech);
         }
 
-        return messages;
+        long searchStarted = System.nanoTime();
+        int[] articles = snapshot.search(topic, 1);
+        log.debug("Searched " + snapshot.getIndex().getArticleCount() + " articles for '" + topic + "' in "
+                + (System.nanoTime() - searchStarted) / 1000 + " us");
+        if (articles.length == 0) {
+            String speechOutput = "I did not find any news about " + topic + ". "
+                    + "You could ask about another topic, or say get news.";
+            return newAskResponse(speechOutput, false, propertyReader.getSpeechReprompt(), false);
+        }
 
+        int firstItem = snapshot.getFirstItem(articles[0]);
+        SpeechPage page = snapshot.getPages().getFrom(firstItem)
+                .withPrefix("Here is the top story about " + topic + ": " + snapshot.getTitle(articles[0]) + ". ");
+        if (propertyReader.isAsOfWording() && feedRepository().isNewsOutdated(snapshot)) {
+            page = page.withPrefix(speakAsOf(snapshot));
+        }
+        session.setAttribute(SESSION_INDEX, snapshot.getPages().getPageOf(firstItem) + 1);
+        session.setAttribute(SESSION_CITY, city);
+        session.setAttribute(SESSION_VERSION, snapshot.getVersion());
+        return newPageResponse(page, "meridian news", repromptText);
     }
 
     private SpeechletResponse handleRateForIntentEventRequest (Intent intent, Session session) {
         log.debug("in the handleRateForIntentEventRequest request");
-        String repromptText = null;
-        SimpleCard card = new SimpleCard();
-        String cardTitle = "meridian rates";
         Slot nameSlot = intent.getSlot(NAME_SLOT);
-        log.debug("The SLOT name is -: " + nameSlot.getValue());
-
-        ArrayList<String> events = (ArrayList<String>) session.getAttribute(SESSION_RATES_TEXT);
-        String speechOutput = "";
-        String cardOutput = "";
-        if (events == null) {
-            try {
-                events = getJsonEventsFromRatesFeed();
-            } catch (FileReaderException e) {
-                speechOutput =
-                        "There is a problem connecting to the Rates Feed at this time."
-                                + " Please try again later.";
-
-                // Create the plain text output
-                SsmlOutputSpeech outputSpeech = new SsmlOutputSpeech();
-                outputSpeech.setSsml("<speak>" + speechOutput + "</speak>");
-                log.debug("Say --- " + speechOutput);
-
-                return SpeechletResponse.newTellResponse(outputSpeech);
-            }
+        String rateName = nameSlot == null ? null : nameSlot.getValue();
+        if (rateName == null || rateName.trim().isEmpty()) {
+            String speechOutput = "Which rate would you like? You could say Prime, swap, LYEBER or Treasury.";
+            return newAskResponse(speechOutput, false, propertyReader.getSpeechReprompt(), false);
         }
 
-            StringBuilder speechOutputBuilder = new StringBuilder();
-//            speechOutputBuilder.append("Latest News");
-            StringBuilder cardOutputBuilder = new StringBuilder();
-//            cardOutputBuilder.append("Latest News");
-            String tempRateMessage = null;
-            String tempName = nameSlot.getValue();
-
-            for (int i = 0; i < events.size(); i++) {
-                tempRateMessage = events.get(i);
-
-                log.debug("While iterating on rate messages, trying to find the right rate message - " + tempRateMessage);
-                log.debug("While iterating on rate messages, looking for - " + tempName);
-                if (tempName.equalsIgnoreCase("LYEBER")) {
-                    tempName = "LIBOR";
-                }
-
-                if (tempRateMessage.toLowerCase().contains(nameSlot.getValue().toLowerCase())) {
-                    log.debug("For the slot chosen the message is : " + tempRateMessage);
-                    speechOutputBuilder.append(tempRateMessage);
-                    speechOutputBuilder.append("<break time=\"1s\"/>" );
-                }
-            }
+        String version = (String) session.getAttribute(SESSION_RATES_VERSION);
+        RatesSnapshot snapshot;
+        try {
+            snapshot = version == null ? feedRepository().getRatesSnapshot() : feedRepository().getRatesSnapshot(version);
+        } catch (DeadlineExceededException e) {
+            return newBudgetOverrunResponse(RATE_FOR_INTENT, "rates", e);
+        } catch (FileReaderException e) {
+            String speechOutput =
+                    "There is a problem connecting to the Rates Feed at this time."
+                            + " Please try again later.";
 
-            if (tempRateMessage == null) {
-                //handle error message. No rate by that name.
-                speechOutputBuilder.append("Sorry i could not find any rate by the name of" +
-                        nameSlot.getValue() + "I can get the latest real estate rates that you care for. " +
-                        "If you would like me to read the latest real estate rates say Read Rates or get rates?" +
-                        "You could also say Prime, swap, LYEBER or Treasury");
-            }
+            // Create the plain text output
+            SsmlOutputSpeech outputSpeech = new SsmlOutputSpeech();
+            outputSpeech.setSsml("<speak>" + speechOutput + "</speak>");
+            log.debug("Say --- " + speechOutput);
 
-            speechOutputBuilder.append("If you would like me to read any other rate, you can say Swap, Prime, LYEBER or Treasury");
-            cardOutputBuilder.append("If you would like me to read any other rate, you can say Swap, Prime, LYEBER or Treasury");
-            speechOutput = speechOutputBuilder.toString();
+            return SpeechletResponse.newTellResponse(outputSpeech);
+        }
+        List<String> rates = snapshot.findSentences(rateName);
+        log.debug("For the slot " + rateName + " the rates are : " + rates);
+
+        String otherRates = "If you would like me to read any other rate, you can say Swap, Prime, LYEBER or Treasury";
+        StringBuilder speechOutputBuilder = new StringBuilder();
+        StringBuilder cardOutputBuilder = new StringBuilder();
+        for (String rate : rates) {
+            SsmlSanitizer.escape(rate, speechOutputBuilder);
+            speechOutputBuilder.append("<break time=\"1s\"/>");
+            cardOutputBuilder.append(rate).append('\n');
+        }
 
-            repromptText = "I can get the latest real estate rates that you care for. " +
-                    "If you would like me to read the latest real estate rates say Read Rates or get rates?" +
-                    "You could also say Prime, swap, LYEBER or Treasury";
+        if (rates.isEmpty()) {
+            //handle error message. No rate by that name.
+            String notFound = "Sorry i could not find any rate by the name of " + rateName + ". ";
+            SsmlSanitizer.escape(notFound, speechOutputBuilder);
+            speechOutputBuilder.append("I can get the latest real estate rates that you care for. " +
+                    "If you would like me to read the latest real estate rates say Read Rates or get rates? " +
+                    "You could also say Prime, swap, LYEBER or Treasury. ");
+            cardOutputBuilder.append(notFound).append('\n');
+        }
 
-        // Create the Simple card content.
+        speechOutputBuilder.append(otherRates);
+        cardOutputBuilder.append(otherRates);
 
-            card.setTitle("meridian rates");
-            card.setContent(cardOutputBuilder.toString());
+        String repromptText = "I can get the latest real estate rates that you care for. " +
+                "If you would like me to read the latest real estate rates say Read Rates or get rates?" +
+                "You could also say Prime, swap, LYEBER or Treasury";
 
-            // After reading the first 3 events, set the count to 3 and add the events
-            // to the session attributes
-            session.setAttribute(SESSION_INDEX, PAGINATION_SIZE);
-            session.setAttribute(SESSION_RATES_TEXT, events);
+        // Create the Simple card content with the rates that were spoken
+        SimpleCard card = new SimpleCard();
+        card.setTitle("meridian rates");
+        card.setContent(cardOutputBuilder.toString());
 
-            log.debug("ABOUT to call back for the dynamic response");
+        // After reading the first events, remember the snapshot and where we are
+        session.setAttribute(SESSION_RATES_INDEX, 1);
+        session.setAttribute(SESSION_RATES_VERSION, snapshot.getVersion());
 
+        log.debug("ABOUT to call back for the dynamic response");
 
-        SpeechletResponse response = newAskResponse("<speak>" + speechOutput + "</speak>", true, repromptText, false);
+        SpeechletResponse response = newAskResponse("<speak>" + speechOutputBuilder + "</speak>", true, repromptText, false);
         response.setCard(card);
         return response;
     }
 
-/*
-        ArrayList<RatesFeedMessage> rates = (ArrayList) session.getAttribute("FEED-MESSAGE-SESSION");
-        if (null == rates) {
-            try {
-                rates = readFeedAndBuildSlotList();
-            } catch (FileReaderException e) {
-                String speechOutput =
-                        "There is a problem connecting to the Rates Feed at this time."
-                                + " Please try again later.";
-
-                // Create the plain text output
-                SsmlOutputSpeech outputSpeech = new SsmlOutputSpeech();
-                outputSpeech.setSsml("<speak>" + speechOutput + "</speak>");
-                log.debug("Say --- " + speechOutput);
-
-                return SpeechletResponse.newTellResponse(outputSpeech);
-            }
-            if (rates.isEmpty()) {
-                String speechOutput =
-                        "There is a problem connecting to the Rates Feed at this time."
-                                + " Please try again later.";
-
-                // Create the plain text output
-                SsmlOutputSpeech outputSpeech = new SsmlOutputSpeech();
-                outputSpeech.setSsml("<speak>" + speechOutput + "</speak>");
-
-                return SpeechletResponse.newTellResponse(outputSpeech);
-            } else {
-                session.setAttribute("FEED-MESSAGE-SESSION", rates);
-            }
+    /*
+     * The page a "next" request reads: the one after the last page read, or the first page when
+     * the session holds no position or the snapshot it was paging through has been replaced, so
+     * an index into an old list is never applied to a new one.
+     */
+    private static int nextPageIndex(Session session, String indexAttribute, String version, FeedSnapshot<?> snapshot) {
+        Object index = session.getAttribute(indexAttribute);
+        if (!(index instanceof Number) || !snapshot.getVersion().equals(version)) {
+            return 0;
         }
+        return ((Number) index).intValue();
+    }
 
-        log.debug("Read and populated the FeedMessages in the session object");
-        if (nameSlot != null && nameSlot.getValue() != null) {
-            String slotName = nameSlot.getValue();
-            String rateString = getRelevantRates(rates, slotName);
-            //String rateString = Rates.get(slotName);
-            if (rateString != null) {
-                // If we have the recipe, return it to the user.
-                PlainTextOutputSpeech outputSpeech = new PlainTextOutputSpeech();
-                outputSpeech.setText(rateString);
-
-                SimpleCard card = new SimpleCard();
-                card.setTitle("Recipe for " + slotName);
-                card.setContent(rateString);
-
-                //return SpeechletResponse.newTellResponse(outputSpeech, card);
-                String repromptText = "Do you want hear more?";
-                log.debug("Just before setting the response" + rateString);
-                SpeechletResponse response = newAskResponse("<speak>" + rateString + "</speak>", true, repromptText, false);
-                response.setCard(card);
-                return response;
-            } else {
-                String speechOutput = propertyReader.getSpeechHelp();
-
-                String repromptText = propertyReader.getSpeechReprompt();
-
-                return newAskResponse(propertyReader.getSpeechHelp(), false, "", false);
-            }
-        } else {
-            // There was no item in the intent so return the help prompt.
-            String speechOutput = propertyReader.getSpeechHelp();
-
-            String repromptText = propertyReader.getSpeechReprompt();
-
-            return newAskResponse(propertyReader.getSpeechHelp(), false, "", false);        }
-
-
+    private SpeechletResponse handleNextRatesEventRequest(Session session) {
 
+        log.debug("in the next event request");
 
-    private String getRelevantRates(ArrayList rates, String slotName) {
-//        ArrayList rateList = new ArrayList();
-        String currentName;
-        RatesFeedMessage message;
-        StringBuilder builder = new StringBuilder();
-        String returnMessage = "";
+        String version = (String) session.getAttribute(SESSION_RATES_VERSION);
+        String repromptText = "Say Next Rate if you would like to hear more rates";
+        if (version == null) {
+            String speechOutput =
+                    "I can get latest real estate rates that you care for. " +
+                            "If you would like me to read the latest real estate rates say Read Rates or get rates?" +
+                            "You could also say Prime, swap, LYEBER or Treasury";
+            return newPageResponse(new SpeechPage("<speak>" + speechOutput + "</speak>", "", true), "meridian rates", repromptText);
+        }
 
-        for (int i=0; i<rates.size(); i++) {
-            message = (RatesFeedMessage) rates.get(i);
-            currentName = message.getName();
-            log.debug("in getRelevantRates - currentNamne" + currentName);
-            log.debug("in getRelevantRates - sloName" + slotName);
+        RatesSnapshot snapshot;
+        try {
+            snapshot = feedRepository().getRatesSnapshot(version);
+        } catch (DeadlineExceededException e) {
+            return newBudgetOverrunResponse(NEXT_RATES_INTENT, "rates", e);
+        } catch (FileReaderException e) {
+            String speechOutput =
+                    "There is a problem connecting to the Rates Feed at this time."
+                            + " Please try again later.";
 
-            if (currentName.toLowerCase().startsWith(slotName.toLowerCase())) {
-                builder.append(message.getDataToBeRead());
-                builder.append("         ");
+            // Create the plain text output
+            SsmlOutputSpeech outputSpeech = new SsmlOutputSpeech();
+            outputSpeech.setSsml("<speak>" + speechOutput + "</speak>");
+            log.debug("Say --- " + speechOutput);
 
-                log.debug("Added a message for " + slotName);
-                log.debug("message name added" + message.getName());
-                log.debug("message that Alexa will read " + builder.toString());
-            }
+            return SpeechletResponse.newTellResponse(outputSpeech);
         }
-        if (builder.toString().isEmpty()) {
-            returnMessage = "I was not able to find the rate by that name. " +
-                    "If you would like me to read the latest real estate rates say Read Rates or get rates?" ;
-        } else {
-            returnMessage = builder.toString();
+
+        int index = nextPageIndex(session, SESSION_RATES_INDEX, version, snapshot);
+        SpeechPage page = snapshot.getPages().get(index);
+        if (page == null) {
+            return newPageResponse(new SpeechPage("<speak>There are no more rates to share.</speak>", "", true),
+                    "meridian rates", repromptText);
         }
-        return returnMessage;
+        session.setAttribute(SESSION_RATES_INDEX, index + 1);
+        session.setAttribute(SESSION_RATES_VERSION, snapshot.getVersion());
+        return newPageResponse(page, "meridian rates", repromptText);
     }
-*/
-    private SpeechletResponse handleNextRatesEventRequest(Session session) {
 
-        log.debug("in the next event request");
+    /**
+     * Counts the budget overrun for the intent and asks the user to try again shortly; the feed
+     * keeps loading in the background, so the next request is likely to find it cached.
+     */
+    private SpeechletResponse newBudgetOverrunResponse(String intentName, String feedName, DeadlineExceededException e) {
+        intentRegistry.countBudgetOverrun(intentName);
+        log.warn(intentName + " ran over its latency budget :- " + e.getMessage());
+        String speechOutput = "The " + feedName + " is taking longer than usual to load. Please ask me again in a moment.";
+        return newAskResponse(speechOutput, false, propertyReader.getSpeechReprompt(), false);
+    }
 
-        String cardTitle = "meridian rates";
-        ArrayList<String> events = (ArrayList<String>) session.getAttribute(SESSION_RATES_TEXT);
-        int index = (Integer) session.getAttribute(SESSION_RATES_INDEX);
-        String speechOutput = "";
-        String cardOutput = "";
-        if (events == null) {
-            speechOutput =
-                    "I can get latest real estate rates that you care for. " +
-                            "If you would like me to read the latest real estate rates say Read Rates or get rates?" +
-                            "You could also say Prime, swap, LYEBER or Treasury";
-        } else if (index >= events.size()) {
-            speechOutput =
-                    "There are no more rates to share.";
-        } else {
-            StringBuilder speechOutputBuilder = new StringBuilder();
-            StringBuilder cardOutputBuilder = new StringBuilder();
-            for (int i = 0; i < PAGINATION_SIZE && index < events.size(); i++) {
-                speechOutputBuilder.append("<p>");
-                speechOutputBuilder.append(events.get(index));
-                if (i<PAGINATION_SIZE-1) {
-                    speechOutputBuilder.append("Next rate");
-                }
-                speechOutputBuilder.append("</p> ");
-                cardOutputBuilder.append(events.get(index));
-                if (i<PAGINATION_SIZE-1) {
-                    cardOutputBuilder.append("Next rate");
-                }
-                cardOutputBuilder.append(" ");
-                index++;
-            }
-            if (index < events.size()) {
-                speechOutputBuilder.append("Say Next Rate if you would like to hear more rates");
-                cardOutputBuilder.append("Say Next Rate if you would like to hear more rates");
-            }
-            session.setAttribute(SESSION_INDEX, index);
-            speechOutput = speechOutputBuilder.toString();
-            cardOutput = cardOutputBuilder.toString();
-        }
-        String repromptText = "Say Next Rate if you would like to hear more rates";
+    /**
+     * Says how old the snapshot is, before reading from an outdated or restored snapshot.
+     */
+    private static String speakAsOf(FeedSnapshot<?> snapshot) {
+        return "As of " + DateUtils.speakAge(snapshot.getFetchedAt(), System.currentTimeMillis()) + ". ";
+    }
 
-        // Create the Simple card content.
+    /**
+     * Builds the Ask response for a pre-rendered page, with the page's card.
+     */
+    private SpeechletResponse newPageResponse(SpeechPage page, String cardTitle, String repromptText) {
         SimpleCard card = new SimpleCard();
         card.setTitle(cardTitle);
-        card.setContent(cardOutput.toString());
+        card.setContent(page.getCard());
 
-        SpeechletResponse response = newAskResponse("<speak>" + speechOutput + "</speak>", true, repromptText, false);
+        SpeechletResponse response = newAskResponse(page.getSsml(), true, repromptText, false);
         response.setCard(card);
         return response;
     }
 
 
+    /**
+     * Function to build the Stop and Cancel intent response.
+     *
+     * @return SpeechletResponse the speechlet response
+     */
+    private static SpeechletResponse newGoodByeResponse(String goodBye) {
+        PlainTextOutputSpeech outputSpeech = new PlainTextOutputSpeech();
+        outputSpeech.setText(goodBye);
+        return SpeechletResponse.newTellResponse(outputSpeech);
+    }
+
     /**
      * Wrapper for creating the Ask response from the input strings.
      *
@@ -804,7 +768,7 @@ public class NewsWizardSpeechlet implements SpeechletV2 {
      *            whether the reprompt text is of type SSML
      * @return SpeechletResponse the speechlet response
      */
-    private SpeechletResponse newAskResponse(String stringOutput, boolean isOutputSsml,
+    private static SpeechletResponse newAskResponse(String stringOutput, boolean isOutputSsml,
             String repromptText, boolean isRepromptSsml) {
         OutputSpeech outputSpeech, repromptOutputSpeech;
         if (isOutputSsml) {
@@ -828,148 +792,71 @@ public class NewsWizardSpeechlet implements SpeechletV2 {
     }
 
     /**
-     * Dispatches a progressive response.
-     *
-     * @param requestId
-     *            the unique request identifier
-     * @param text
-     *            the text of the progressive response to send
-     * @param systemState
-     *            the SystemState object
-     * @param apiEndpoint
-     *            the Alexa API endpoint
+     * The responses for the current configuration, rebuilt after a reload. Two requests may both
+     * rebuild them; they build the same thing, so either result will do.
      */
-    private void dispatchProgressiveResponse(String requestId, String text, SystemState systemState, String apiEndpoint) {
-        DirectiveEnvelopeHeader header = DirectiveEnvelopeHeader.builder().withRequestId(requestId).build();
-        SpeakDirective directive = SpeakDirective.builder().withSpeech(text).build();
-        DirectiveEnvelope directiveEnvelope = DirectiveEnvelope.builder()
-                .withHeader(header).withDirective(directive).build();
-
-        if(systemState.getApiAccessToken() != null && !systemState.getApiAccessToken().isEmpty()) {
-            String token = systemState.getApiAccessToken();
-            try {
-                directiveService.enqueue(directiveEnvelope, apiEndpoint, token);
-            } catch (Exception e) {
-                log.error("FAtal error  - Failed to dispatch a progressive response", e);
-            }
+    private static ConfiguredResponses configuredResponses() {
+        SkillConfiguration configuration = propertyReader.getConfiguration();
+        ConfiguredResponses responses = configuredResponses;
+        if (responses == null || responses.configuration != configuration) {
+            responses = new ConfiguredResponses(configuration);
+            configuredResponses = responses;
         }
+        return responses;
     }
 
-    /**
-     * Helper method that retrieves the system state from the request context.
-     * @param context request context.
-     * @return SystemState the systemState
+    /*
+     * The text of the responses for one configuration. Each call builds a new response, since the
+     * SDK's responses are mutable and a handler may still set a card or session flag on one.
      */
-    private SystemState getSystemState(Context context) {
-        return context.getState(SystemInterface.class, SystemState.class);
-    }
-
-    /**
-     * Download JSON-formatted list of events from Wikipedia, for a defined day/date, and return a
-     * String array of the events, with each event representing an element in the array.
-     *
-     * @return String array of events for that date, 1 event per element of the array
-     */
-
-    private ArrayList<String> getJsonEventsFromRatesFeed() throws FileReaderException {
-
-        String text = "";
-        String line;
-        ArrayList messages = new ArrayList();
-        RatesRSSFeedParser parser = new RatesRSSFeedParser(propertyReader.getRatesFeedUrl());
-        RatesFeed feed = parser.readFeed();
-
-        String name = "";
-        String rate = "";
-        String date = "";
-        String symbol = "";
-        String month = "";
-        String day = "";
-
-        StringBuilder builder = null;
-        for (RatesFeedMessage message : feed.getMessages()) {
-            builder = new StringBuilder();
-            name = message.getName();
-            rate = message.getValue();
-            symbol = message.getSymbol();
-
-            builder.append("As of ");
-
-            date = message.getQuoteDate();
-            month = date.substring(0, date.indexOf("/"));
-            day = date.substring(date.indexOf("/")+1, date.lastIndexOf("/"));
-
-            builder.append(month);
-            builder.append(" ");
-            builder.append(day);
-
+    private static final class ConfiguredResponses {
+        final SkillConfiguration configuration;
+        private final String welcome;
+        private final String help;
+        private final String goodBye;
+        private final String sorry;
+        private final String reprompt;
+
+        ConfiguredResponses (SkillConfiguration configuration) {
+            this.configuration = configuration;
+            welcome = configuration.getWelcomeMessage();
+            help = configuration.getSpeechHelp();
+            goodBye = configuration.getGoodBye();
+            sorry = configuration.getSpeechSorry();
+            reprompt = configuration.getSpeechReprompt();
+        }
 
-            builder.append(" the ");
-            if (!message.getName().toLowerCase().endsWith("rate")) {
-                builder.append(message.getName() + " rate ");
-            } else {
-                builder.append(message.getName());
-            }
-            builder.append(" is ");
-            builder.append(message.getValue());
-            log.debug("JSON Message builder " + builder.toString());
+        SpeechletResponse welcome() {
+            return newWelcomeResponse(welcome);
+        }
 
-            messages.add(builder.toString());
+        SpeechletResponse birth() {
+            return newBirthResponse();
+        }
 
+        SpeechletResponse help() {
+            return newAskResponse(help, false, "", false);
         }
 
-        return messages;
+        SpeechletResponse goodBye() {
+            return newGoodByeResponse(goodBye);
+        }
 
+        SpeechletResponse sorry() {
+            return newAskResponse(sorry, true, reprompt, true);
+        }
     }
-/*
-    private ArrayList<RatesFeedMessage> readFeedAndBuildSlotList() throws FileReaderException {
-
-        String text = "";
-        String line;
-        ArrayList feedMessages = new ArrayList();
-        RatesRSSFeedParser parser = new RatesRSSFeedParser(propertyReader.getRatesFeedUrl());
-        RatesFeed feed = parser.readFeed();
-
-        String name = "";
-        String rate = "";
-        String date = "";
-        String symbol = "";
-        String month = "";
-        String day = "";
-
-        StringBuilder builder = null;
-        for (RatesFeedMessage message : feed.getMessages()) {
-            builder = new StringBuilder();
-            name = message.getName();
-            rate = message.getValue();
-            symbol = message.getSymbol();
-
-            builder.append("As of ");
-
-            date = message.getQuoteDate();
-            month = date.substring(0, date.indexOf("/"));
-            day = date.substring(date.indexOf("/")+1, date.lastIndexOf("/"));
-
-            builder.append(month);
-            builder.append(" ");
-            builder.append(day);
-
-
-            builder.append(" the ");
-            if (!message.getName().toLowerCase().endsWith("rate")) {
-                builder.append(message.getName() + " rate ");
-            } else {
-                builder.append(message.getName());
-            }
-            builder.append(" is ");
-            builder.append(message.getValue());
-            log.debug("JSON Message builder " + builder.toString());
 
-            message.setDataToBeRead(builder.toString());
-            feedMessages.add(message);
-        }
-        return feedMessages;
+    /**
+     * The feed repository, created on first use rather than with the speechlet, since creating it
+     * restores the stored snapshots.
+     */
+    private static FeedRepository feedRepository() {
+        return FeedRepository.getFeedRepository();
+    }
 
+    private SystemState getSystemState(Context context) {
+        return context.getState(SystemInterface.class, SystemState.class);
     }
-*/
+
 }
@@ -4,12 +4,22 @@
 package main.java.com.meridian.alexa.skill;
 
 import com.amazon.speech.speechlet.Speechlet;
+import com.amazon.speech.speechlet.SpeechletV2;
 import com.amazon.speech.speechlet.lambda.SpeechletRequestStreamHandler;
-import com.amazon.speech.speechlet.services.DirectiveServiceClient;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import main.java.com.meridian.utilities.PropertyReader;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashSet;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
 import java.util.Set;
 
 /**
@@ -18,35 +28,115 @@ import java.util.Set;
  * "historybuff.HistoryBuffSpeechletRequestStreamHandler" For this to work, you'll also need to
  * build this project using the {@code lambda-compile} Ant task and upload the resulting zip file to
  * power your function.
+ * <p>
+ * A scheduled warm-up event, recognised by the {@code warmup-event-field} and
+ * {@code warmup-event-value} properties, never reaches the speechlet: the handler refreshes the
+ * feeds and primes the request path itself, then answers. Everything else goes to the SDK handler.
  */
-public class NewsWizardSpeechletRequestStreamHandler extends SpeechletRequestStreamHandler {
+public class NewsWizardSpeechletRequestStreamHandler implements RequestStreamHandler {
 
-    private static final Set<String> supportedApplicationIds;
     private static final org.slf4j.Logger log = LoggerFactory.getLogger(NewsWizardSpeechlet.class);
 
+    private static final JsonFactory jsonFactory = new JsonFactory();
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
 
-    private static PropertyReader propertyReader = PropertyReader.getPropertyReader();
+    /*
+     * This is the ID for the Alexa Skill, read in the configuration phase of initialisation
+     */
+    private static final Set<String> supportedApplicationIds = SkillInitializer.loadConfiguration();
 
+    // Null when built around a version one speechlet, which warm-ups leave alone
+    private final SpeechletV2 speechlet;
+    private final SpeechletRequestStreamHandler speechletHandler;
 
-    static {
-        /*
-         * This is the ID for the Alexa Skill
-         */
-        supportedApplicationIds = new HashSet<String>();
-        //TODO replace with the real Alexa ID
-        supportedApplicationIds.add(propertyReader.getSkillId());
+    public NewsWizardSpeechletRequestStreamHandler () {
+        this(PropertyReader.getPropertyReader().isPrimeOnInit());
     }
 
-    public NewsWizardSpeechletRequestStreamHandler () {
-        super(new NewsWizardSpeechlet(new DirectiveServiceClient()), supportedApplicationIds);
+    /**
+     * Builds the handler, priming the request path before the first request when asked to.
+     */
+    public NewsWizardSpeechletRequestStreamHandler (boolean prime) {
+        this(SkillInitializer.createSpeechlet(prime), supportedApplicationIds);
         log.debug("Test in NewsWizardSpeechletRequestStreamHandler - 1");
     }
 
+    public NewsWizardSpeechletRequestStreamHandler (SpeechletV2 speechlet,
+                                                    Set<String> supportedApplicationIds) {
+        this.speechlet = speechlet;
+        // The SDK handler's handleRequest is final, so warm-ups are answered in front of it instead
+        this.speechletHandler = new SpeechletRequestStreamHandler(speechlet, supportedApplicationIds) {
+        };
+    }
+
     public NewsWizardSpeechletRequestStreamHandler (Speechlet speechlet,
                                                     Set<String> supportedApplicationIds) {
-        super(speechlet, supportedApplicationIds);
+        this.speechlet = null;
+        this.speechletHandler = new SpeechletRequestStreamHandler(speechlet, supportedApplicationIds) {
+        };
         log.debug("Test in NewsWizardSpeechletRequestStreamHandler - 2");
 
     }
 
+    @Override
+    public void handleRequest(InputStream input, OutputStream output, Context context) throws IOException {
+        byte[] event = readAll(input);
+        PropertyReader propertyReader = PropertyReader.getPropertyReader();
+        if (!isWarmUp(event, propertyReader.getWarmupEventField(), propertyReader.getWarmupEventValue())) {
+            speechletHandler.handleRequest(new ByteArrayInputStream(event), output, context);
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        int feedsBehind = SkillInitializer.warmUp(speechlet, propertyReader.getWarmupBudgetMillis());
+        long millis = System.currentTimeMillis() - started;
+        log.info("Warmed up in " + millis + " ms, feeds not fresh :- " + feedsBehind);
+        output.write(("{\"warmUp\":true,\"millis\":" + millis + ",\"feedsBehind\":" + feedsBehind + "}").getBytes(UTF_8));
+    }
+
+    /*
+     * True when the event's top level field has the warm-up value. Only the top level is read, and
+     * an Alexa request is given up on as soon as its "request" field is seen.
+     */
+    static boolean isWarmUp(byte[] event, String field, String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        try {
+            JsonParser parser = jsonFactory.createParser(event);
+            try {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    return false;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.getCurrentName();
+                    JsonToken token = parser.nextToken();
+                    if (name.equals(field)) {
+                        return token == JsonToken.VALUE_STRING && value.equals(parser.getText());
+                    }
+                    if ("request".equals(name)) {
+                        return false;
+                    }
+                    parser.skipChildren();
+                }
+                return false;
+            } finally {
+                parser.close();
+            }
+        } catch (IOException e) {
+            // Not JSON we can read; the speechlet handler reports it
+            return false;
+        }
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        return bytes.toByteArray();
+    }
+
 }
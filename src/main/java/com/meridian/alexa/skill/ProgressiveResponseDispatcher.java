@@ -0,0 +1,204 @@
+/**
+    Copyright  */
+package main.java.com.meridian.alexa.skill;
+
+import com.amazon.speech.speechlet.interfaces.system.SystemState;
+import com.amazon.speech.speechlet.services.DirectiveEnvelope;
+import com.amazon.speech.speechlet.services.DirectiveEnvelopeHeader;
+import com.amazon.speech.speechlet.services.DirectiveService;
+import com.amazon.speech.speechlet.services.SpeakDirective;
+import main.java.com.meridian.utilities.DaemonThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends progressive responses without holding up the request that asked for them.
+ *
+ * <ul>
+ * <li><b>Concurrent</b>: the directive is sent on a small pool while the handler fetches its feed</li>
+ * <li><b>Bounded</b>: a directive still pending after the timeout, or when the handler's answer is
+ * ready, is abandoned, because Alexa ignores a progressive response that arrives after the answer</li>
+ * <li><b>Recorded</b>: sent, failed, timed out, abandoned and skipped directives are counted,
+ * with the latency of the directive call</li>
+ * </ul>
+ */
+public class ProgressiveResponseDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(ProgressiveResponseDispatcher.class);
+
+    private static final ScheduledExecutorService timeoutExecutor = Executors.newSingleThreadScheduledExecutor(
+            new DaemonThreadFactory("progressive-response-timeout"));
+
+    private final DirectiveService directiveService;
+    private final long timeoutMillis;
+    private final ThreadPoolExecutor dispatchExecutor;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong abandoned = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public ProgressiveResponseDispatcher (DirectiveService directiveService, int threads, int timeoutMillis) {
+        this.directiveService = directiveService;
+        this.timeoutMillis = timeoutMillis;
+        this.dispatchExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(threads * 4), new DaemonThreadFactory("progressive-response"));
+        dispatchExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Starts sending the speech as a progressive response and returns at once. Returns null when
+     * nothing is sent: the request carries no API token or the pool is full.
+     *
+     * @param requestId
+     *            the unique request identifier
+     * @param text
+     *            the text of the progressive response to send
+     * @param systemState
+     *            the SystemState object
+     * @param apiEndpoint
+     *            the Alexa API endpoint
+     */
+    public Future<?> dispatch(String requestId, String text, SystemState systemState, final String apiEndpoint) {
+        final String token = systemState.getApiAccessToken();
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+
+        DirectiveEnvelopeHeader header = DirectiveEnvelopeHeader.builder().withRequestId(requestId).build();
+        SpeakDirective directive = SpeakDirective.builder().withSpeech(text).build();
+        final DirectiveEnvelope directiveEnvelope = DirectiveEnvelope.builder()
+                .withHeader(header).withDirective(directive).build();
+
+        final FutureTask<Void> task = new FutureTask<Void>(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                long start = System.nanoTime();
+                try {
+                    directiveService.enqueue(directiveEnvelope, apiEndpoint, token);
+                    return null;
+                } finally {
+                    record(System.nanoTime() - start);
+                }
+            }
+        }) {
+            @Override
+            protected void done() {
+                // A cancelled call was counted by whoever cancelled it, as timed out or abandoned
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    get();
+                    sent.incrementAndGet();
+                } catch (ExecutionException e) {
+                    failures.incrementAndGet();
+                    log.warn("Failed to dispatch a progressive response", e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        try {
+            dispatchExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            log.warn("Progressive response dropped, " + dispatchExecutor.getQueue().size() + " are already waiting");
+            return null;
+        }
+
+        timeoutExecutor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (task.cancel(true)) {
+                    timeouts.incrementAndGet();
+                    log.warn("Progressive response abandoned after " + timeoutMillis + " ms");
+                }
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        return task;
+    }
+
+    /**
+     * Counts a progressive response the handler did not need, because its answer is immediate.
+     */
+    public void skip() {
+        skipped.incrementAndGet();
+    }
+
+    /**
+     * Called when the handler's answer is ready: a progressive response still pending by then
+     * would arrive too late, so it is abandoned.
+     */
+    public void finish(Future<?> dispatch) {
+        if (dispatch != null && dispatch.cancel(true)) {
+            abandoned.incrementAndGet();
+        }
+    }
+
+    private void record(long nanos) {
+        calls.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long getSentCount () {
+        return sent.get();
+    }
+
+    public long getFailureCount () {
+        return failures.get();
+    }
+
+    public long getTimeoutCount () {
+        return timeouts.get();
+    }
+
+    public long getAbandonedCount () {
+        return abandoned.get();
+    }
+
+    public long getRejectedCount () {
+        return rejected.get();
+    }
+
+    public long getSkippedCount () {
+        return skipped.get();
+    }
+
+    /**
+     * Average latency of the directive calls that were started, in milliseconds.
+     */
+    public long getAverageMillis () {
+        long count = calls.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalNanos.get() / count);
+    }
+
+    public long getMaxMillis () {
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "ProgressiveResponseDispatcher [sent=" + sent + ", failures=" + failures + ", timeouts=" + timeouts
+                + ", abandoned=" + abandoned + ", rejected=" + rejected + ", skipped=" + skipped
+                + ", avgMs=" + getAverageMillis() + ", maxMs=" + getMaxMillis() + "]";
+    }
+}
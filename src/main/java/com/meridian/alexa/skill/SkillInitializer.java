@@ -0,0 +1,193 @@
+/**
+    Copyright  */
+package main.java.com.meridian.alexa.skill;
+
+import com.amazon.speech.json.SpeechletRequestEnvelope;
+import com.amazon.speech.json.SpeechletResponseEnvelope;
+import com.amazon.speech.speechlet.LaunchRequest;
+import com.amazon.speech.speechlet.SpeechletV2;
+import com.amazon.speech.speechlet.services.DirectiveEnvelope;
+import com.amazon.speech.speechlet.services.DirectiveService;
+import com.amazon.speech.speechlet.services.DirectiveServiceClient;
+import com.amazon.speech.speechlet.services.ServiceException;
+import main.java.com.meridian.utilities.FeedHttpClient;
+import main.java.com.meridian.utilities.NewsFeed;
+import main.java.com.meridian.utilities.NewsIndex;
+import main.java.com.meridian.utilities.NewsRSSFeedParser;
+import main.java.com.meridian.utilities.PropertyReader;
+import main.java.com.meridian.utilities.RatesFeed;
+import main.java.com.meridian.utilities.RatesRSSFeedParser;
+import main.java.com.meridian.utilities.SpeechChunker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Starts the skill in explicit phases, so a cold container does only what its first request needs.
+ *
+ * <ul>
+ * <li><b>Configuration</b>: the skill properties, the HTTP keep-alive settings and the application ids
+ * requests are checked against</li>
+ * <li><b>Speechlet</b>: the speechlet and its prebuilt responses. The feed repository, which restores
+ * snapshots from disk, and the directive service client are created on first use</li>
+ * <li><b>Priming</b>: opt in with {@code prime-on-init}. Runs a canned launch request through the
+ * JSON reader and writer and bundled feeds through the XML parsers and ingest, and creates the
+ * feed repository, so the classes and code paths of the first real request are already loaded.
+ * Worth it where initialisation is not billed or not on the request path</li>
+ * </ul>
+ * A scheduled warm-up does the priming the first time when startup did not, and refreshes the feeds.
+ */
+public class SkillInitializer {
+    private static final Logger log = LoggerFactory.getLogger(SkillInitializer.class);
+
+    /**
+     * Phases of initialisation, in order.
+     */
+    public enum Phase {
+        CONFIGURATION, SPEECHLET, PRIMING
+    }
+
+    private static final AtomicBoolean primed = new AtomicBoolean();
+
+    private static final Map<Phase, Long> phaseMillis = Collections.synchronizedMap(new EnumMap<Phase, Long>(Phase.class));
+
+    private SkillInitializer () {
+    }
+
+    /**
+     * Phase one: reads the skill properties, configures the JVM wide HTTP keep-alive cache and
+     * returns the supported application ids.
+     */
+    public static Set<String> loadConfiguration() {
+        long started = System.nanoTime();
+        PropertyReader propertyReader = PropertyReader.getPropertyReader();
+        FeedHttpClient.configureKeepAlive(propertyReader);
+        Set<String> supportedApplicationIds = new HashSet<String>();
+        supportedApplicationIds.add(propertyReader.getSkillId());
+        record(Phase.CONFIGURATION, started);
+        return supportedApplicationIds;
+    }
+
+    /**
+     * Phase two, and three when priming: builds the speechlet the handler serves.
+     */
+    public static NewsWizardSpeechlet createSpeechlet(boolean prime) {
+        long started = System.nanoTime();
+        NewsWizardSpeechlet speechlet = new NewsWizardSpeechlet(new LazyDirectiveService());
+        record(Phase.SPEECHLET, started);
+
+        if (prime) {
+            primeOnce(speechlet);
+        }
+        log.info("Initialised in phases :- " + phaseMillis);
+        return speechlet;
+    }
+
+    /**
+     * Answers a scheduled warm-up: refreshes the news of every city and the rates, waiting at most
+     * the budget, and primes the request path if that has not happened in this container yet.
+     * The work is done before returning, since a Lambda container is frozen once it answers.
+     * Returns the number of feeds that are still not fresh.
+     */
+    public static int warmUp(SpeechletV2 speechlet, long budgetMillis) {
+        int feedsBehind = FeedRepository.getFeedRepository().refreshAll(budgetMillis);
+        if (speechlet instanceof NewsWizardSpeechlet) {
+            primeOnce((NewsWizardSpeechlet) speechlet);
+        }
+        return feedsBehind;
+    }
+
+    private static void primeOnce(NewsWizardSpeechlet speechlet) {
+        if (!primed.compareAndSet(false, true)) {
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            prime(speechlet);
+        } catch (Exception e) {
+            // Priming only ever saves time; the first request takes the slow path instead
+            log.warn("Priming failed, the first request will load what it needs", e);
+        }
+        record(Phase.PRIMING, started);
+    }
+
+    private static void prime(NewsWizardSpeechlet speechlet) throws Exception {
+        InputStream in = getResource("priming/launch-request.json").openStream();
+        SpeechletRequestEnvelope<?> request;
+        try {
+            request = SpeechletRequestEnvelope.fromJson(in);
+        } finally {
+            in.close();
+        }
+        @SuppressWarnings("unchecked")
+        SpeechletRequestEnvelope<LaunchRequest> launch = (SpeechletRequestEnvelope<LaunchRequest>) request;
+        SpeechletResponseEnvelope response = new SpeechletResponseEnvelope();
+        response.setVersion(launch.getVersion());
+        response.setResponse(speechlet.onLaunch(launch));
+        response.toJsonBytes();
+
+        NewsFeed newsFeed = new NewsRSSFeedParser(getResource("priming/news.rss").toExternalForm()).readFeed();
+        // A builder and chunker of its own, so the fixture articles never sit in the shared index builder
+        FeedRepository.ingestNewsFeed(newsFeed, System.currentTimeMillis(), true,
+                new SpeechChunker(PropertyReader.getPropertyReader().getArticleChunkWords()),
+                new NewsIndex.Builder(Math.max(1, newsFeed.getMessages().size())));
+        RatesFeed ratesFeed = new RatesRSSFeedParser(getResource("priming/rates.xml").toExternalForm()).readFeed();
+        FeedRepository.ingestRatesFeed(ratesFeed, System.currentTimeMillis(), true);
+
+        FeedRepository.getFeedRepository();
+    }
+
+    private static URL getResource(String name) throws FileNotFoundException {
+        URL url = SkillInitializer.class.getClassLoader().getResource(name);
+        if (url == null) {
+            throw new FileNotFoundException("Missing priming resource " + name);
+        }
+        return url;
+    }
+
+    private static void record(Phase phase, long startedNanos) {
+        phaseMillis.put(phase, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos));
+    }
+
+    /**
+     * Milliseconds spent in each phase that has run.
+     */
+    public static Map<Phase, Long> getPhaseMillis () {
+        synchronized (phaseMillis) {
+            return new EnumMap<Phase, Long>(phaseMillis);
+        }
+    }
+
+    /*
+     * Creates the directive service client, and the HTTP and JSON machinery behind it, on the
+     * first progressive response rather than at startup.
+     */
+    private static final class LazyDirectiveService implements DirectiveService {
+        private volatile DirectiveService client;
+
+        @Override
+        public void enqueue(DirectiveEnvelope directiveEnvelope, String apiEndpoint, String apiAccessToken)
+                throws ServiceException {
+            DirectiveService service = client;
+            if (service == null) {
+                synchronized (this) {
+                    if (client == null) {
+                        client = new DirectiveServiceClient();
+                    }
+                    service = client;
+                }
+            }
+            service.enqueue(directiveEnvelope, apiEndpoint, apiAccessToken);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package main.java.com.meridian.exception;
+
+/**
+ * A feed could not be loaded within the request's latency budget. The load carries on in the
+ * background, so a later request is likely to find the feed cached.
+ */
+public class DeadlineExceededException extends FileReaderException {
+    public DeadlineExceededException (String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,104 @@
+package main.java.com.meridian.utilities;
+
+import main.java.com.meridian.exception.FileReaderException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Snapshots that sessions are reading, keyed by snapshot version.
+ *
+ * A session keeps only the version and its page index; the articles stay here. The store holds
+ * the most recently used snapshots. When a version is not held, because it was evicted or the
+ * session started in another container, the snapshot is rebuilt from the feed. Versions are
+ * content hashes, so the rebuilt snapshot has the same version unless the feed has changed since,
+ * in which case the session carries on with the current snapshot.
+ */
+
+public class ArticleStore<S extends FeedSnapshot<?>> {
+    private static final Logger log = LoggerFactory.getLogger(ArticleStore.class);
+
+    /**
+     * Supplies the current snapshot of a feed when a version has to be rebuilt.
+     */
+    public interface Source<S> {
+        S getSnapshot(String feedKey) throws FileReaderException;
+    }
+
+    private final Source<S> source;
+    private final Map<String, S> snapshots;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong versionChanges = new AtomicLong();
+
+    public ArticleStore (Source<S> source, final int maxSnapshots) {
+        this.source = source;
+        this.snapshots = new LinkedHashMap<String, S>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, S> eldest) {
+                return size() > maxSnapshots;
+            }
+        };
+    }
+
+    /**
+     * Holds the snapshot so sessions can come back to it by version.
+     */
+    public void put(S snapshot) {
+        synchronized (snapshots) {
+            snapshots.put(snapshot.getVersion(), snapshot);
+        }
+    }
+
+    /**
+     * Returns the snapshot with the given version, rebuilding it from the feed when it is not held.
+     * When the feed has changed since, returns the current snapshot instead.
+     */
+    public S get(String feedKey, String version) throws FileReaderException {
+        synchronized (snapshots) {
+            S snapshot = snapshots.get(version);
+            if (snapshot != null) {
+                hits.incrementAndGet();
+                return snapshot;
+            }
+        }
+
+        rebuilds.incrementAndGet();
+        S current = source.getSnapshot(feedKey);
+        put(current);
+        if (!current.getVersion().equals(version)) {
+            versionChanges.incrementAndGet();
+            log.info("Snapshot " + version + " of " + feedKey + " is gone, continuing with " + current.getVersion());
+        }
+        return current;
+    }
+
+    public long getHitCount () {
+        return hits.get();
+    }
+
+    public long getRebuildCount () {
+        return rebuilds.get();
+    }
+
+    /**
+     * Rebuilds that found the feed had changed, so the session moved to the current snapshot.
+     */
+    public long getVersionChangeCount () {
+        return versionChanges.get();
+    }
+
+    @Override
+    public String toString() {
+        int size;
+        synchronized (snapshots) {
+            size = snapshots.size();
+        }
+        return "ArticleStore [snapshots=" + size + ", hits=" + hits + ", rebuilds=" + rebuilds
+                + ", versionChanges=" + versionChanges + "]";
+    }
+}
@@ -0,0 +1,246 @@
+package main.java.com.meridian.utilities;
+
+import main.java.com.meridian.exception.FileReaderException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * News feed snapshots for every configured city.
+ *
+ * Each city has its own FeedCache, so a slow or failing city never holds up the cache of another.
+ * Warming fetches all cities in parallel on a small bounded pool instead of one after the other.
+ * The set of cities is fixed per instance; a configuration change makes a new instance that keeps
+ * the caches of the cities whose feed did not change.
+ */
+
+public class CityNewsFeeds {
+    private static final Logger log = LoggerFactory.getLogger(CityNewsFeeds.class);
+
+    private final String defaultCity;
+    private final Map<String, String> feedUrls;
+    private final Map<String, FeedCache<NewsSnapshot>> caches = new LinkedHashMap<String, FeedCache<NewsSnapshot>>();
+    private final FeedCache.Loader<NewsSnapshot> loader;
+    private final int ttlSeconds;
+    private final int fetchThreads;
+    private final ThreadPoolExecutor fetchExecutor;
+
+    public CityNewsFeeds (Map<String, String> cityFeedUrls, String defaultCity, FeedCache.Loader<NewsSnapshot> loader,
+                          int ttlSeconds, int fetchThreads) {
+        this.defaultCity = defaultCity;
+        this.feedUrls = Collections.unmodifiableMap(new LinkedHashMap<String, String>(cityFeedUrls));
+        this.loader = loader;
+        this.ttlSeconds = ttlSeconds;
+        this.fetchThreads = fetchThreads;
+        for (String city : feedUrls.keySet()) {
+            caches.put(city, new FeedCache<NewsSnapshot>(loader, ttlSeconds));
+        }
+        fetchExecutor = createFetchExecutor(fetchThreads, feedUrls.size());
+    }
+
+    private CityNewsFeeds (CityNewsFeeds previous, Map<String, String> cityFeedUrls, String defaultCity) {
+        this.defaultCity = defaultCity;
+        this.feedUrls = Collections.unmodifiableMap(new LinkedHashMap<String, String>(cityFeedUrls));
+        this.loader = previous.loader;
+        this.ttlSeconds = previous.ttlSeconds;
+        this.fetchThreads = previous.fetchThreads;
+        this.fetchExecutor = createFetchExecutor(fetchThreads, feedUrls.size());
+        for (Map.Entry<String, String> city : feedUrls.entrySet()) {
+            FeedCache<NewsSnapshot> cache = previous.caches.get(city.getKey());
+            boolean unchanged = cache != null && city.getValue().equals(previous.feedUrls.get(city.getKey()));
+            caches.put(city.getKey(), unchanged ? cache : new FeedCache<NewsSnapshot>(loader, ttlSeconds));
+        }
+    }
+
+    /*
+     * Bounded both ways, with room in the queue for every city: a refresh only finds the queue
+     * full while the previous round is still waiting for threads, and is then rejected and skipped.
+     */
+    private static ThreadPoolExecutor createFetchExecutor(int fetchThreads, int cities) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(fetchThreads, fetchThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(Math.max(1, cities)), new DaemonThreadFactory("city-news-fetch"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * These feeds with the given cities and default city: this instance when nothing changed,
+     * otherwise a new one sharing the caches of the cities whose feed URL is the same. The new
+     * instance has its own fetch pool sized for its cities; the pool of this one is shut down
+     * once the fetches already queued on it are done.
+     */
+    public CityNewsFeeds reconfigure(Map<String, String> cityFeedUrls, String defaultCity) {
+        if (feedUrls.equals(cityFeedUrls) && this.defaultCity.equals(defaultCity)) {
+            return this;
+        }
+        CityNewsFeeds reconfigured = new CityNewsFeeds(this, cityFeedUrls, defaultCity);
+        fetchExecutor.shutdown();
+        return reconfigured;
+    }
+
+    /**
+     * Turns a spoken city ("New York") into its configuration key ("new-york").
+     */
+    public static String toCityKey(String spokenCity) {
+        StringBuilder key = new StringBuilder(spokenCity.length());
+        boolean separator = false;
+        for (int i = 0; i < spokenCity.length(); i++) {
+            char c = Character.toLowerCase(spokenCity.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                if (separator && key.length() > 0) {
+                    key.append('-');
+                }
+                key.append(c);
+                separator = false;
+            } else {
+                separator = true;
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Resolves a spoken city to a configured city, the default city when none was spoken, or null
+     * when the city is not configured.
+     */
+    public String resolveCity(String spokenCity) {
+        if (spokenCity == null || spokenCity.trim().isEmpty()) {
+            return defaultCity;
+        }
+        String city = toCityKey(spokenCity);
+        return feedUrls.containsKey(city) ? city : null;
+    }
+
+    public Set<String> getCities () {
+        return feedUrls.keySet();
+    }
+
+    /**
+     * The configured cities as they would be spoken, e.g. "new york, chicago".
+     */
+    public String getSpokenCities () {
+        StringBuilder builder = new StringBuilder();
+        for (String city : feedUrls.keySet()) {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            builder.append(city.replace('-', ' '));
+        }
+        return builder.toString();
+    }
+
+    public String getFeedUrl (String city) {
+        return feedUrls.get(city);
+    }
+
+    /**
+     * The city's snapshot, waiting at most the budget when it is not cached yet.
+     */
+    public NewsSnapshot getSnapshot(String city, long budgetMillis) throws FileReaderException {
+        FeedCache<NewsSnapshot> cache = caches.get(city);
+        if (cache == null) {
+            throw new FileReaderException("No news feed is configured for " + city);
+        }
+        return cache.get(feedUrls.get(city), budgetMillis);
+    }
+
+    /**
+     * The city's cached snapshot, fresh or stale, or null when nothing is cached. Never starts a load.
+     */
+    public NewsSnapshot getCachedSnapshot(String city) {
+        FeedCache<NewsSnapshot> cache = caches.get(city);
+        return cache == null ? null : cache.peek(feedUrls.get(city));
+    }
+
+    /**
+     * Seeds the city's cache with a snapshot restored from storage, if it has nothing yet.
+     */
+    public void seed(String city, NewsSnapshot snapshot) {
+        FeedCache<NewsSnapshot> cache = caches.get(city);
+        if (cache != null) {
+            cache.seed(feedUrls.get(city), snapshot);
+        }
+    }
+
+    /**
+     * True when the city's news is cached, so getting its snapshot does not wait on the network.
+     */
+    public boolean isCached(String city) {
+        FeedCache<NewsSnapshot> cache = caches.get(city);
+        return cache != null && cache.isCached(feedUrls.get(city));
+    }
+
+    public FeedCache<NewsSnapshot> getCache (String city) {
+        return caches.get(city);
+    }
+
+    /**
+     * Starts loading every city whose cache is empty or stale, all in parallel. Does not wait.
+     */
+    public void warmAll() {
+        for (final Map.Entry<String, FeedCache<NewsSnapshot>> entry : caches.entrySet()) {
+            try {
+                fetchExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        String feedUrl = feedUrls.get(entry.getKey());
+                        try {
+                            entry.getValue().warm(feedUrl);
+                        } catch (Exception e) {
+                            log.warn("Could not warm the news feed for " + entry.getKey() + " from " + feedUrl, e);
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                log.debug("Not warming " + entry.getKey() + ", the fetch queue is full or was replaced");
+            }
+        }
+    }
+
+    /**
+     * Refreshes every city whose cache is empty or stale, all in parallel, and waits for them at
+     * most the budget. Returns the number of cities that are still not fresh.
+     */
+    public int refreshAll(long budgetMillis) {
+        final CountDownLatch done = new CountDownLatch(caches.size());
+        final AtomicInteger refreshed = new AtomicInteger();
+        for (final Map.Entry<String, FeedCache<NewsSnapshot>> entry : caches.entrySet()) {
+            try {
+                fetchExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        String feedUrl = feedUrls.get(entry.getKey());
+                        try {
+                            entry.getValue().refreshIfStale(feedUrl);
+                            refreshed.incrementAndGet();
+                        } catch (Exception e) {
+                            log.warn("Could not refresh the news feed for " + entry.getKey() + " from " + feedUrl, e);
+                        } finally {
+                            done.countDown();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Still full from the last warm-up, or shut down because the cities were reconfigured
+                log.warn("Not refreshing " + entry.getKey() + ", the fetch queue is full or was replaced");
+                done.countDown();
+            }
+        }
+        try {
+            done.await(budgetMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return caches.size() - refreshed.get();
+    }
+}
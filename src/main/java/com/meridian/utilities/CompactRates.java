@@ -0,0 +1,129 @@
+package main.java.com.meridian.utilities;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * Immutable, typed copy of a rates feed, kept in place of the parsed feed messages.
+ *
+ * Values are held in a primitive array and quote dates as LocalDate; names and symbols are
+ * interned, since the same few dozen rates come back in every refresh. A value that is not a
+ * number is NaN and a date that cannot be parsed is null.
+ */
+
+public class CompactRates {
+    private static final DateTimeFormatter QUOTE_DATE_FORMAT = DateTimeFormatter.ofPattern("M/d/yyyy");
+
+    private final String[] names;
+    private final String[] symbols;
+    private final double[] values;
+    private final LocalDate[] quoteDates;
+
+    private CompactRates (String[] names, String[] symbols, double[] values, LocalDate[] quoteDates) {
+        this.names = names;
+        this.symbols = symbols;
+        this.values = values;
+        this.quoteDates = quoteDates;
+    }
+
+    public static CompactRates of(RatesFeed feed) {
+        List<RatesFeedMessage> messages = feed.getMessages();
+        int size = messages.size();
+        String[] names = new String[size];
+        String[] symbols = new String[size];
+        double[] values = new double[size];
+        LocalDate[] quoteDates = new LocalDate[size];
+        for (int i = 0; i < size; i++) {
+            RatesFeedMessage message = messages.get(i);
+            names[i] = intern(message.getName());
+            symbols[i] = intern(message.getSymbol());
+            values[i] = parseValue(message.getValue());
+            quoteDates[i] = parseQuoteDate(message.getQuoteDate());
+        }
+        return new CompactRates(names, symbols, values, quoteDates);
+    }
+
+    public int size () {
+        return names.length;
+    }
+
+    public String getName (int index) {
+        return names[index];
+    }
+
+    public String getSymbol (int index) {
+        return symbols[index];
+    }
+
+    public double getValue (int index) {
+        return values[index];
+    }
+
+    public LocalDate getQuoteDate (int index) {
+        return quoteDates[index];
+    }
+
+    /**
+     * The sentence read to the user for one rate, e.g. "As of 10 17 the Prime Rate is 5.25".
+     */
+    public String toSentence(int index) {
+        StringBuilder builder = new StringBuilder(64);
+        LocalDate date = quoteDates[index];
+        if (date != null) {
+            builder.append("As of ").append(date.getMonthValue()).append(' ').append(date.getDayOfMonth()).append(" the ");
+        } else {
+            builder.append("The ");
+        }
+        String name = names[index] == null ? "" : names[index];
+        builder.append(name);
+        if (!name.toLowerCase().endsWith("rate")) {
+            builder.append(" rate");
+        }
+        builder.append(" is ");
+        double value = values[index];
+        builder.append(Double.isNaN(value) ? "not available" : BigDecimal.valueOf(value).stripTrailingZeros().toPlainString());
+        return builder.toString();
+    }
+
+    /**
+     * The sentences of all rates, in feed order.
+     */
+    public List<String> toSentences() {
+        List<String> sentences = new ArrayList<String>(names.length);
+        for (int i = 0; i < names.length; i++) {
+            sentences.add(toSentence(i));
+        }
+        return Collections.unmodifiableList(sentences);
+    }
+
+    private static String intern(String text) {
+        return text == null ? null : text.trim().intern();
+    }
+
+    private static double parseValue(String value) {
+        if (value == null) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static LocalDate parseQuoteDate(String quoteDate) {
+        if (quoteDate == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(quoteDate.trim(), QUOTE_DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package main.java.com.meridian.utilities;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Watches one file and runs a callback whenever it is written, created or moved into place.
+ *
+ * The watch is on the file's directory, since editors and deployment tools often replace a file
+ * rather than write to it. Events are gathered until the directory has been quiet for a moment,
+ * so one save usually runs the callback once, but the callback must be safe to repeat.
+ */
+
+public class ConfigurationWatcher {
+    private static final Logger log = LoggerFactory.getLogger(ConfigurationWatcher.class);
+
+    private static final long SETTLE_MILLIS = 200;
+
+    private final Path file;
+    private final Runnable onChange;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    public ConfigurationWatcher (Path file, Runnable onChange) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.onChange = onChange;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                watch();
+            }
+        }, "config-watcher");
+        thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+        log.info("Watching " + file + " for changes");
+    }
+
+    public void stop() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.warn("Could not close the watch on " + file, e);
+        }
+    }
+
+    private void watch() {
+        while (true) {
+            boolean changed;
+            try {
+                changed = drain(watchService.take());
+                // A save is often several writes; wait for them to settle so a half written file is not read
+                WatchKey next;
+                while ((next = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drain(next);
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            if (changed) {
+                try {
+                    onChange.run();
+                } catch (RuntimeException e) {
+                    log.error("Could not apply the change to " + file, e);
+                }
+            }
+        }
+    }
+
+    /*
+     * True when the key's events touch the file. Resets the key so it reports further events.
+     */
+    private boolean drain(WatchKey key) {
+        Path name = file.getFileName();
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            // An overflow may have dropped our file's event; reloading once more is harmless
+            changed |= event.kind() == StandardWatchEventKinds.OVERFLOW || name.equals(event.context());
+        }
+        if (!key.reset()) {
+            log.warn("Stopped watching " + file + ", its directory is gone");
+        }
+        return changed;
+    }
+}
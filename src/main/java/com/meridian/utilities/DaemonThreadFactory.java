@@ -0,0 +1,25 @@
+package main.java.com.meridian.utilities;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Creates daemon threads named after their pool and numbered from 1, so background pools never
+ * keep the JVM alive and their threads are easy to tell apart in a thread dump.
+ */
+
+public class DaemonThreadFactory implements ThreadFactory {
+    private final String namePrefix;
+    private final AtomicInteger count = new AtomicInteger();
+
+    public DaemonThreadFactory (String poolName) {
+        this.namePrefix = poolName + "-";
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, namePrefix + count.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
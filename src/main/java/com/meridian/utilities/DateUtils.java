@@ -8,6 +8,7 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 public class DateUtils {
 
@@ -46,4 +47,27 @@ public class DateUtils {
         return calendar;
     }
 
+    /**
+     * Function to say how long ago something happened, e.g. "5 minutes ago" or "2 hours ago".
+     *
+     * @param since
+     *            the time it happened, in milliseconds
+     * @param now
+     *            the current time, in milliseconds
+     * @return the spoken age
+     */
+    public static String speakAge(long since, long now) {
+        long minutes = TimeUnit.MILLISECONDS.toMinutes(Math.max(0, now - since));
+        if (minutes < 1) {
+            return "just now";
+        } else if (minutes < 60) {
+            return minutes == 1 ? "a minute ago" : minutes + " minutes ago";
+        }
+        long hours = TimeUnit.MINUTES.toHours(minutes);
+        if (hours < 48) {
+            return hours == 1 ? "an hour ago" : hours + " hours ago";
+        }
+        return TimeUnit.HOURS.toDays(hours) + " days ago";
+    }
+
 }
@@ -0,0 +1,243 @@
+package main.java.com.meridian.utilities;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeDefinition;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.CreateTableRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.KeySchemaElement;
+import com.amazonaws.services.dynamodbv2.model.KeyType;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughput;
+import com.amazonaws.services.dynamodbv2.model.ScalarAttributeType;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.util.Tables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * Latest feeds shared by every container, in one DynamoDB item per feed URL.
+ *
+ * An item holds the feed in the SnapshotFileStore layout, gzipped to stay well under the item size
+ * limit, with its fetch time and a version that counts the writes. It also holds the refresh lease:
+ * a container refreshes a feed only after a conditional write names it the lease owner, and its
+ * write of the new feed succeeds only while it still is, releasing the lease at the same time.
+ * A lease that is not released, because its container died, expires after the lease time.
+ *
+ * DynamoDB failures are logged, not thrown, and read as "nothing shared": the store only ever
+ * saves upstream requests.
+ */
+
+public class DynamoSnapshotStore {
+    private static final Logger log = LoggerFactory.getLogger(DynamoSnapshotStore.class);
+
+    private static final String KEY = "feedUrl";
+    private static final String SNAPSHOT = "snapshot";
+    private static final String FETCHED_AT = "fetchedAt";
+    private static final String VERSION = "version";
+    private static final String LEASE_OWNER = "leaseOwner";
+    private static final String LEASE_EXPIRES_AT = "leaseExpiresAt";
+
+    private final AmazonDynamoDB client;
+    private final String tableName;
+    private final long leaseMillis;
+
+    public DynamoSnapshotStore (AmazonDynamoDB client, String tableName, int leaseSeconds) {
+        this.client = client;
+        this.tableName = tableName;
+        this.leaseMillis = TimeUnit.SECONDS.toMillis(leaseSeconds);
+    }
+
+    /**
+     * Creates the table when it does not exist yet and waits for it to become active. Meant for
+     * DynamoDB Local and first deployments; the skill itself never creates tables.
+     */
+    public void createTableIfMissing() throws InterruptedException {
+        if (Tables.doesTableExist(client, tableName)) {
+            return;
+        }
+        client.createTable(new CreateTableRequest()
+                .withTableName(tableName)
+                .withKeySchema(new KeySchemaElement(KEY, KeyType.HASH))
+                .withAttributeDefinitions(new AttributeDefinition(KEY, ScalarAttributeType.S))
+                .withProvisionedThroughput(new ProvisionedThroughput(5L, 5L)));
+        Tables.awaitTableToBecomeActive(client, tableName);
+        log.info("Created the shared snapshot table " + tableName);
+    }
+
+    /**
+     * The shared feed for the URL, or null when there is none or it cannot be read.
+     */
+    public <F> SnapshotFileStore.Stored<F> load(String feedUrl, SnapshotFileStore.Codec<F> codec) {
+        try {
+            Map<String, AttributeValue> item = client.getItem(new GetItemRequest()
+                    .withTableName(tableName)
+                    .withKey(key(feedUrl))
+                    .withConsistentRead(true)
+                    .withProjectionExpression("#snapshot")
+                    .withExpressionAttributeNames(Collections.singletonMap("#snapshot", SNAPSHOT))).getItem();
+            if (item == null || !item.containsKey(SNAPSHOT)) {
+                return null;
+            }
+            SnapshotFileStore.Stored<F> stored = SnapshotFileStore.readSnapshot(
+                    ByteBuffer.wrap(gunzip(item.get(SNAPSHOT).getB())), feedUrl, codec);
+            if (stored == null) {
+                log.warn("Ignoring the shared snapshot of " + feedUrl + ", it is in another format");
+            }
+            return stored;
+        } catch (AmazonClientException | IOException | BufferUnderflowException e) {
+            log.warn("Could not read the shared snapshot of " + feedUrl, e);
+            return null;
+        }
+    }
+
+    /**
+     * Makes the owner the one container allowed to refresh the feed, for the lease time. True when
+     * it is; false when a lease is held, even by the same owner, or the shared feed was fetched at
+     * or after staleBefore and so needs no refresh. When DynamoDB cannot be reached this is true
+     * as well, so the feed is still refreshed.
+     */
+    public boolean tryAcquireLease(String feedUrl, String owner, long staleBefore) {
+        long now = System.currentTimeMillis();
+        Map<String, String> names = leaseNames();
+        names.put("#fetchedAt", FETCHED_AT);
+        Map<String, AttributeValue> values = new HashMap<String, AttributeValue>();
+        values.put(":owner", new AttributeValue().withS(owner));
+        values.put(":expires", number(now + leaseMillis));
+        values.put(":now", number(now));
+        values.put(":staleBefore", number(staleBefore));
+        try {
+            client.updateItem(new UpdateItemRequest()
+                    .withTableName(tableName)
+                    .withKey(key(feedUrl))
+                    .withUpdateExpression("SET #owner = :owner, #expires = :expires")
+                    .withConditionExpression("(attribute_not_exists(#fetchedAt) OR #fetchedAt < :staleBefore)"
+                            + " AND (attribute_not_exists(#expires) OR #expires < :now)")
+                    .withExpressionAttributeNames(names)
+                    .withExpressionAttributeValues(values));
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        } catch (AmazonClientException e) {
+            log.warn("Could not take the refresh lease of " + feedUrl + ", refreshing without it", e);
+            return true;
+        }
+    }
+
+    /**
+     * Gives up the owner's lease without writing a feed, after a failed refresh.
+     */
+    public void releaseLease(String feedUrl, String owner) {
+        try {
+            client.updateItem(new UpdateItemRequest()
+                    .withTableName(tableName)
+                    .withKey(key(feedUrl))
+                    .withUpdateExpression("REMOVE #owner, #expires")
+                    .withConditionExpression("#owner = :owner")
+                    .withExpressionAttributeNames(leaseNames())
+                    .withExpressionAttributeValues(Collections.singletonMap(":owner", new AttributeValue().withS(owner))));
+        } catch (ConditionalCheckFailedException e) {
+            log.debug("The refresh lease of " + feedUrl + " had already passed to another container");
+        } catch (AmazonClientException e) {
+            log.warn("Could not release the refresh lease of " + feedUrl + ", it expires on its own", e);
+        }
+    }
+
+    /**
+     * Shares the feed the owner refreshed and releases its lease. Nothing is written when the
+     * lease has meanwhile expired and passed to another container. True when the feed was written.
+     */
+    public <F> boolean save(String feedUrl, F feed, long fetchedAt, SnapshotFileStore.Codec<F> codec, String owner) {
+        Map<String, String> names = leaseNames();
+        names.put("#snapshot", SNAPSHOT);
+        names.put("#fetchedAt", FETCHED_AT);
+        names.put("#version", VERSION);
+        Map<String, AttributeValue> values = new HashMap<String, AttributeValue>();
+        values.put(":owner", new AttributeValue().withS(owner));
+        values.put(":fetchedAt", number(fetchedAt));
+        values.put(":one", number(1));
+        try {
+            values.put(":snapshot", new AttributeValue().withB(ByteBuffer.wrap(gzip(feedUrl, feed, fetchedAt, codec))));
+            client.updateItem(new UpdateItemRequest()
+                    .withTableName(tableName)
+                    .withKey(key(feedUrl))
+                    .withUpdateExpression("SET #snapshot = :snapshot, #fetchedAt = :fetchedAt ADD #version :one REMOVE #owner, #expires")
+                    .withConditionExpression("#owner = :owner")
+                    .withExpressionAttributeNames(names)
+                    .withExpressionAttributeValues(values));
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            log.info("Not sharing the refresh of " + feedUrl + ", its lease passed to another container");
+            return false;
+        } catch (AmazonClientException | IOException e) {
+            log.warn("Could not share the snapshot of " + feedUrl, e);
+            return false;
+        }
+    }
+
+    /**
+     * How long a refresh lease lasts when its owner neither saves nor releases it.
+     */
+    public long getLeaseMillis () {
+        return leaseMillis;
+    }
+
+    private static Map<String, AttributeValue> key(String feedUrl) {
+        return Collections.singletonMap(KEY, new AttributeValue().withS(feedUrl));
+    }
+
+    private static Map<String, String> leaseNames() {
+        Map<String, String> names = new HashMap<String, String>();
+        names.put("#owner", LEASE_OWNER);
+        names.put("#expires", LEASE_EXPIRES_AT);
+        return names;
+    }
+
+    private static AttributeValue number(long value) {
+        return new AttributeValue().withN(Long.toString(value));
+    }
+
+    private static <F> byte[] gzip(String feedUrl, F feed, long fetchedAt, SnapshotFileStore.Codec<F> codec)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * 1024);
+        DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes));
+        try {
+            SnapshotFileStore.writeSnapshot(out, feedUrl, feed, fetchedAt, codec);
+        } finally {
+            out.close();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] gunzip(ByteBuffer compressed) throws IOException {
+        byte[] bytes = new byte[compressed.remaining()];
+        compressed.duplicate().get(bytes);
+        InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes));
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 4);
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package main.java.com.meridian.utilities;
+
+import main.java.com.meridian.exception.DeadlineExceededException;
+import main.java.com.meridian.exception.FileReaderException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Process wide cache of parsed feeds, keyed by feed URL.
+ *
+ * A fresh entry is served as is. An entry older than the TTL is still served, but one background
+ * refresh is started for it, so a caller only waits on the network when nothing is cached yet.
+ * That wait can be bounded by a latency budget, past which the load finishes in the background.
+ * The age of a FeedSnapshot counts from its fetch time, so a copy another container fetched a
+ * while ago is stale as soon as it is cached.
+ */
+
+public class FeedCache<T> {
+    private static final Logger log = LoggerFactory.getLogger(FeedCache.class);
+
+    /**
+     * Loads a feed from its URL on a cache miss or refresh.
+     */
+    public interface Loader<T> {
+        T load(String feedUrl) throws FileReaderException;
+    }
+
+    private static final ExecutorService refreshExecutor = Executors.newFixedThreadPool(2,
+            new DaemonThreadFactory("feed-cache-refresh"));
+
+    // Loads on a cache miss that a caller waits for with a budget; the caller may give up first.
+    // There is at most one load per URL at a time, so this holds at most a thread per feed.
+    private static final ExecutorService loadExecutor = Executors.newCachedThreadPool(
+            new DaemonThreadFactory("feed-cache-load"));
+
+    private final ConcurrentMap<String, Entry<T>> entries = new ConcurrentHashMap<String, Entry<T>>();
+    private final ConcurrentMap<String, Future<T>> loading = new ConcurrentHashMap<String, Future<T>>();
+    private final Loader<T> loader;
+    private final long ttlMillis;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+    private final AtomicLong deadlinesExceeded = new AtomicLong();
+
+    public FeedCache (Loader<T> loader, int ttlSeconds) {
+        this.loader = loader;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+    }
+
+    /**
+     * Returns the cached feed for the URL. Loads it on the calling thread when nothing is cached,
+     * and schedules a background refresh when the cached copy is older than the TTL.
+     */
+    public T get(final String feedUrl) throws FileReaderException {
+        Entry<T> entry = entries.get(feedUrl);
+        if (entry == null) {
+            misses.incrementAndGet();
+            T value = loader.load(feedUrl);
+            entries.put(feedUrl, new Entry<T>(value));
+            return value;
+        }
+
+        if (System.currentTimeMillis() - entry.loadedAt < ttlMillis) {
+            hits.incrementAndGet();
+        } else {
+            staleHits.incrementAndGet();
+            scheduleRefresh(feedUrl, entry);
+        }
+        return entry.value;
+    }
+
+    /**
+     * Like {@link #get(String)}, but waits at most the budget for a feed that is not cached yet.
+     * Past the budget the load goes on in the background, storing the feed for later requests,
+     * and a DeadlineExceededException is thrown. Callers that miss at the same time all wait on
+     * the one load of the URL.
+     */
+    public T get(final String feedUrl, long budgetMillis) throws FileReaderException {
+        if (entries.containsKey(feedUrl)) {
+            return get(feedUrl);
+        }
+
+        misses.incrementAndGet();
+        Future<T> load = loading.get(feedUrl);
+        if (load == null) {
+            FutureTask<T> task = new FutureTask<T>(new Callable<T>() {
+                @Override
+                public T call() throws FileReaderException {
+                    T value = loader.load(feedUrl);
+                    entries.put(feedUrl, new Entry<T>(value));
+                    return value;
+                }
+            }) {
+                @Override
+                protected void done() {
+                    // The feed is cached by now, or the load failed and the next miss tries again
+                    loading.remove(feedUrl, this);
+                }
+            };
+            load = loading.putIfAbsent(feedUrl, task);
+            if (load == null) {
+                load = task;
+                loadExecutor.execute(task);
+            }
+        }
+        try {
+            return load.get(budgetMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            deadlinesExceeded.incrementAndGet();
+            throw new DeadlineExceededException("Feed " + feedUrl + " was not loaded within " + budgetMillis + " ms");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof FileReaderException) {
+                throw (FileReaderException) e.getCause();
+            }
+            throw new FileReaderException("Could not load " + feedUrl, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileReaderException("Interrupted while loading " + feedUrl, e);
+        }
+    }
+
+    /**
+     * Loads the feed when nothing is cached yet, or schedules a refresh when the cached copy is
+     * stale. Used to warm the cache ahead of requests, so it does not count as a hit or miss.
+     */
+    public void warm(String feedUrl) throws FileReaderException {
+        Entry<T> entry = entries.get(feedUrl);
+        if (entry == null) {
+            entries.put(feedUrl, new Entry<T>(loader.load(feedUrl)));
+            refreshes.incrementAndGet();
+        } else if (System.currentTimeMillis() - entry.loadedAt >= ttlMillis) {
+            scheduleRefresh(feedUrl, entry);
+        }
+    }
+
+    /**
+     * Like {@link #warm(String)}, but a stale copy is reloaded on the calling thread too, so the
+     * feed is fresh when this returns. For callers that must not leave work running in the background.
+     */
+    public void refreshIfStale(String feedUrl) throws FileReaderException {
+        Entry<T> entry = entries.get(feedUrl);
+        if (entry == null || System.currentTimeMillis() - entry.loadedAt >= ttlMillis) {
+            entries.put(feedUrl, new Entry<T>(loader.load(feedUrl)));
+            refreshes.incrementAndGet();
+        }
+    }
+
+    /**
+     * Runs {@link #refreshIfStale(String)} in the background, for a caller that refreshes several
+     * feeds at once and waits for them under one deadline.
+     */
+    public Future<?> startRefreshIfStale(final String feedUrl) {
+        return loadExecutor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws FileReaderException {
+                refreshIfStale(feedUrl);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Puts a value loaded from somewhere other than the loader, such as a snapshot on disk, unless
+     * the URL is already cached. The value is treated as stale, so the first request for it
+     * starts a refresh.
+     */
+    public void seed(String feedUrl, T value) {
+        entries.putIfAbsent(feedUrl, new Entry<T>(value, 0));
+    }
+
+    /**
+     * True when a copy of the feed is cached, fresh or stale, so {@link #get} answers without
+     * waiting on the network.
+     */
+    public boolean isCached(String feedUrl) {
+        return entries.containsKey(feedUrl);
+    }
+
+    /**
+     * The cached copy of the feed, fresh or stale, or null when nothing is cached. Unlike
+     * {@link #get}, it never loads, never starts a refresh and does not count as a hit or miss.
+     */
+    public T peek(String feedUrl) {
+        Entry<T> entry = entries.get(feedUrl);
+        return entry == null ? null : entry.value;
+    }
+
+    private void scheduleRefresh(final String feedUrl, final Entry<T> entry) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        refreshExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    T value = loader.load(feedUrl);
+                    entries.put(feedUrl, new Entry<T>(value));
+                    refreshes.incrementAndGet();
+                } catch (Exception e) {
+                    refreshFailures.incrementAndGet();
+                    log.warn("Background refresh failed for " + feedUrl + ", serving the stale copy", e);
+                } finally {
+                    entry.refreshing.set(false);
+                }
+            }
+        });
+    }
+
+    public long getHitCount () {
+        return hits.get();
+    }
+
+    public long getStaleHitCount () {
+        return staleHits.get();
+    }
+
+    public long getMissCount () {
+        return misses.get();
+    }
+
+    public long getRefreshCount () {
+        return refreshes.get();
+    }
+
+    public long getRefreshFailureCount () {
+        return refreshFailures.get();
+    }
+
+    public long getDeadlineExceededCount () {
+        return deadlinesExceeded.get();
+    }
+
+    @Override
+    public String toString() {
+        return "FeedCache [entries=" + entries.size() + ", hits=" + hits + ", staleHits=" + staleHits
+                + ", misses=" + misses + ", refreshes=" + refreshes + ", refreshFailures=" + refreshFailures
+                + ", deadlinesExceeded=" + deadlinesExceeded + "]";
+    }
+
+    private static final class Entry<T> {
+        final T value;
+        final long loadedAt;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry (T value) {
+            this(value, value instanceof FeedSnapshot
+                    ? Math.min(((FeedSnapshot<?>) value).getFetchedAt(), System.currentTimeMillis())
+                    : System.currentTimeMillis());
+        }
+
+        Entry (T value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package main.java.com.meridian.utilities;
+
+import main.java.com.meridian.exception.FileReaderException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Downloads feeds with conditional GET.
+ *
+ * The ETag and Last-Modified validators of every successful download are kept per URL and item
+ * limit together with the parsed result. The next request for the URL with that limit sends
+ * If-None-Match / If-Modified-Since, and a 304 answer returns the previously parsed result without
+ * reading or parsing a body. Keying by the limit as well keeps a feed cut at one limit from being
+ * handed to a caller that asked for another. A 304 with no parsed result to return is treated as a
+ * miss: the feed is fetched again without validators, asking caches on the way not to answer.
+ */
+
+public class FeedFetcher {
+    private static final Logger log = LoggerFactory.getLogger(FeedFetcher.class);
+
+    private static final FeedFetcher feedFetcher = new FeedFetcher();
+
+    /**
+     * Turns a downloaded feed body into its parsed form.
+     */
+    public interface BodyParser<T> {
+        T parse(InputStream in) throws FileReaderException;
+    }
+
+    private final ConcurrentMap<String, Validated> validatedFeeds = new ConcurrentHashMap<String, Validated>();
+
+    private final AtomicLong fullFetches = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+
+    private FeedFetcher() {
+    }
+
+    public static FeedFetcher getFeedFetcher () {
+        return feedFetcher;
+    }
+
+    /**
+     * Fetches the URL and parses the whole body, or returns the previously parsed result when the
+     * server reports the feed as not modified.
+     */
+    public <T> T fetch(URL url, BodyParser<T> parser) throws FileReaderException {
+        return fetch(url, Integer.MAX_VALUE, parser);
+    }
+
+    /**
+     * Fetches the URL and parses the body with a parser that keeps at most itemLimit items, or
+     * returns the result previously parsed with the same limit when the server reports the feed
+     * as not modified.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T fetch(URL url, int itemLimit, BodyParser<T> parser) throws FileReaderException {
+        String key = itemLimit == Integer.MAX_VALUE ? url.toExternalForm() : url.toExternalForm() + " " + itemLimit;
+        Validated previous = validatedFeeds.get(key);
+        Map<String, String> requestHeaders = new HashMap<String, String>();
+        if (previous != null) {
+            if (previous.etag != null) {
+                requestHeaders.put("If-None-Match", previous.etag);
+            }
+            if (previous.lastModified != null) {
+                requestHeaders.put("If-Modified-Since", previous.lastModified);
+            }
+        }
+
+        FeedHttpClient.FeedResponse response = null;
+        try {
+            response = FeedHttpClient.getFeedHttpClient().get(url, requestHeaders);
+            int status = response.getStatus();
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                if (previous != null) {
+                    notModified.incrementAndGet();
+                    log.debug("Feed not modified, reusing the parsed copy of " + url);
+                    return (T) previous.parsed;
+                }
+                // There is no copy to reuse, so a cache on the way answered for a copy of its own
+                log.warn("Feed " + url + " answered 304 with nothing cached here, fetching it again without validators");
+                response.close();
+                response = FeedHttpClient.getFeedHttpClient().get(url, noCacheHeaders());
+                status = response.getStatus();
+                if (status == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    throw new FileReaderException("Feed " + url + " answered 304 to a request without validators");
+                }
+            }
+            if (status >= HttpURLConnection.HTTP_BAD_REQUEST) {
+                throw new FileReaderException("Feed " + url + " answered with HTTP " + status);
+            }
+
+            T parsed = parser.parse(response.getBody());
+            fullFetches.incrementAndGet();
+
+            String etag = response.getHeader("ETag");
+            String lastModified = response.getHeader("Last-Modified");
+            if (etag != null || lastModified != null) {
+                validatedFeeds.put(key, new Validated(etag, lastModified, parsed));
+            } else {
+                validatedFeeds.remove(key);
+            }
+            return parsed;
+        } catch (IOException e) {
+            throw new FileReaderException("Could not fetch feed " + url, e);
+        } finally {
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
+
+    private static Map<String, String> noCacheHeaders() {
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put("Cache-Control", "no-cache");
+        headers.put("Pragma", "no-cache");
+        return headers;
+    }
+
+    public long getFullFetchCount () {
+        return fullFetches.get();
+    }
+
+    public long getNotModifiedCount () {
+        return notModified.get();
+    }
+
+    private static final class Validated {
+        final String etag;
+        final String lastModified;
+        final Object parsed;
+
+        Validated (String etag, String lastModified, Object parsed) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.parsed = parsed;
+        }
+    }
+}
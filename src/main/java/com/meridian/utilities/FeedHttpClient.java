@@ -0,0 +1,280 @@
+package main.java.com.meridian.utilities;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/*
+ * Shared HTTP client for feed downloads.
+ *
+ * Connections come from the JDK keep-alive cache: every body is drained before it is closed so the
+ * socket goes back to the cache instead of being dropped. The exception is a body the parser
+ * closed before its end because it had read enough items; that connection is dropped, since
+ * draining it would download the rest of the feed after all. Connect and read timeouts are bounded,
+ * gzip and deflate bodies are decompressed transparently, and latency is recorded per host.
+ * The keep-alive cache itself is configured for the whole JVM by {@link #configureKeepAlive}.
+ */
+
+public class FeedHttpClient {
+    private static final Logger log = LoggerFactory.getLogger(FeedHttpClient.class);
+
+    /**
+     * Upper bound on the bytes read from a half consumed body to make its connection reusable.
+     */
+    private static final int MAX_DRAIN_BYTES = 64 * 1024;
+
+    private static final FeedHttpClient feedHttpClient = new FeedHttpClient(PropertyReader.getPropertyReader());
+
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final ConcurrentMap<String, HostStats> hostStats = new ConcurrentHashMap<String, HostStats>();
+
+    private FeedHttpClient(PropertyReader propertyReader) {
+        this.connectTimeoutMillis = propertyReader.getFeedConnectTimeoutMillis();
+        this.readTimeoutMillis = propertyReader.getFeedReadTimeoutMillis();
+    }
+
+    /**
+     * Sets the JVM wide system properties of the JDK keep-alive cache, which every HttpURLConnection
+     * in the process shares, unless they were given on the command line. The cache reads them
+     * once, so the launcher or the Lambda handler calls this at startup, before the first request.
+     */
+    public static void configureKeepAlive(PropertyReader propertyReader) {
+        if (System.getProperty("http.keepAlive") == null) {
+            System.setProperty("http.keepAlive", "true");
+        }
+        if (System.getProperty("http.maxConnections") == null) {
+            System.setProperty("http.maxConnections",
+                    String.valueOf(propertyReader.getFeedMaxConnectionsPerHost()));
+        }
+        if (System.getProperty("http.KeepAlive.remainingData") == null) {
+            // No draining behind our back: close() decides whether a half read body is worth draining
+            System.setProperty("http.KeepAlive.remainingData", "0");
+        }
+        log.info("HTTP keep-alive: http.keepAlive=" + System.getProperty("http.keepAlive")
+                + ", http.maxConnections=" + System.getProperty("http.maxConnections")
+                + ", http.KeepAlive.remainingData=" + System.getProperty("http.KeepAlive.remainingData"));
+    }
+
+    public static FeedHttpClient getFeedHttpClient () {
+        return feedHttpClient;
+    }
+
+    /**
+     * Sends a GET for the URL with the given extra request headers. The caller must close the
+     * returned response.
+     */
+    public FeedResponse get(URL url, Map<String, String> requestHeaders) throws IOException {
+        URLConnection connection = url.openConnection();
+        connection.setConnectTimeout(connectTimeoutMillis);
+        connection.setReadTimeout(readTimeoutMillis);
+        if (!(connection instanceof HttpURLConnection)) {
+            // file: and jar: URLs (test fixtures) are read as they are
+            return new FeedResponse(HttpURLConnection.HTTP_OK, connection, connection.getInputStream(), null);
+        }
+
+        HttpURLConnection http = (HttpURLConnection) connection;
+        http.setRequestMethod("GET");
+        http.setRequestProperty("Accept-Encoding", "gzip, deflate");
+        for (Map.Entry<String, String> header : requestHeaders.entrySet()) {
+            http.setRequestProperty(header.getKey(), header.getValue());
+        }
+
+        HostStats stats = getStats(url.getHost());
+        long start = System.nanoTime();
+        int status;
+        try {
+            status = http.getResponseCode();
+        } catch (IOException e) {
+            stats.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+        stats.record(System.nanoTime() - start);
+
+        InputStream raw = status >= HttpURLConnection.HTTP_BAD_REQUEST ? http.getErrorStream() : http.getInputStream();
+        return new FeedResponse(status, http, raw, http.getContentEncoding());
+    }
+
+    private HostStats getStats(String host) {
+        HostStats stats = hostStats.get(host);
+        if (stats == null) {
+            HostStats created = new HostStats();
+            stats = hostStats.putIfAbsent(host, created);
+            if (stats == null) {
+                stats = created;
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Latency statistics keyed by host name.
+     */
+    public Map<String, HostStats> getHostStats () {
+        return Collections.<String, HostStats>unmodifiableMap(hostStats);
+    }
+
+    /*
+     * One feed response. The body is decompressed according to its Content-Encoding.
+     */
+    public static class FeedResponse implements Closeable {
+        private final int status;
+        private final URLConnection connection;
+        private final InputStream raw;
+        private final InputStream body;
+
+        // Set once the parser has closed the body itself, which leaves nothing to drain
+        private volatile boolean bodyClosed;
+        // Set when the parser closed the body before its end, which leaves too much to drain
+        private volatile boolean abandoned;
+
+        FeedResponse (int status, final URLConnection connection, InputStream stream, String contentEncoding) throws IOException {
+            this.status = status;
+            this.connection = connection;
+            this.raw = stream == null ? null : new FilterInputStream(stream) {
+                @Override
+                public void close() throws IOException {
+                    bodyClosed = true;
+                    if (abandoned && connection instanceof HttpURLConnection) {
+                        ((HttpURLConnection) connection).disconnect();
+                    } else {
+                        super.close();
+                    }
+                }
+            };
+            if (raw == null) {
+                this.body = null;
+                return;
+            }
+            InputStream decoded;
+            if ("gzip".equalsIgnoreCase(contentEncoding)) {
+                decoded = new GZIPInputStream(raw);
+            } else if ("deflate".equalsIgnoreCase(contentEncoding)) {
+                decoded = new InflaterInputStream(raw);
+            } else {
+                decoded = raw;
+            }
+            // The end is seen on the decoded body: a gzip reader stops at its trailer, not at -1
+            this.body = new FilterInputStream(decoded) {
+                private boolean endReached;
+
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    endReached |= b == -1;
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int read = super.read(buffer, offset, length);
+                    endReached |= read == -1;
+                    return read;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    abandoned = !endReached;
+                    super.close();
+                }
+            };
+        }
+
+        public int getStatus () {
+            return status;
+        }
+
+        public String getHeader (String name) {
+            return connection.getHeaderField(name);
+        }
+
+        public InputStream getBody () {
+            return body;
+        }
+
+        /**
+         * Drains what is left of the body so the connection can be reused, then closes it. A body
+         * the parser already closed is left alone.
+         */
+        @Override
+        public void close() {
+            if (raw == null || bodyClosed) {
+                return;
+            }
+            try {
+                byte[] buffer = new byte[4096];
+                int drained = 0;
+                int read;
+                while (drained < MAX_DRAIN_BYTES && (read = raw.read(buffer)) != -1) {
+                    drained += read;
+                }
+            } catch (IOException e) {
+                log.debug("Could not drain feed response", e);
+            }
+            try {
+                raw.close();
+            } catch (IOException e) {
+                log.debug("Could not close feed response", e);
+            }
+        }
+    }
+
+    /*
+     * Time to response headers for one host.
+     */
+    public static class HostStats {
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            requests.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        void recordFailure(long nanos) {
+            failures.incrementAndGet();
+            record(nanos);
+        }
+
+        public long getRequestCount () {
+            return requests.get();
+        }
+
+        public long getFailureCount () {
+            return failures.get();
+        }
+
+        public long getAverageMillis () {
+            long count = requests.get();
+            return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalNanos.get() / count);
+        }
+
+        public long getMaxMillis () {
+            return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+        }
+
+        @Override
+        public String toString() {
+            return "HostStats [requests=" + requests + ", failures=" + failures + ", avgMillis="
+                    + getAverageMillis() + ", maxMillis=" + getMaxMillis() + "]";
+        }
+    }
+}
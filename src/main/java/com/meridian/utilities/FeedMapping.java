@@ -0,0 +1,38 @@
+package main.java.com.meridian.utilities;
+
+/*
+ * Maps the elements of one kind of XML feed onto its feed and item objects for StaxFeedEngine.
+ *
+ * Every element whose text is wanted gets a field number. Text found before the first item is
+ * collected as the feed header, text inside an item element as that item's fields.
+ */
+
+public interface FeedMapping<F, I> {
+
+    /**
+     * Local name of the element that encloses one item.
+     */
+    String getItemElement();
+
+    /**
+     * Number of distinct fields returned by {@link #getField(String)}.
+     */
+    int getFieldCount();
+
+    /**
+     * Field number for an element whose text should be captured, or -1 to skip the element.
+     */
+    int getField(String localName);
+
+    /**
+     * Creates the feed from the header fields, indexed by field number. Missing fields are empty.
+     */
+    F newFeed(String[] header);
+
+    /**
+     * Creates one item from its fields, indexed by field number. Missing fields are empty.
+     */
+    I newItem(String[] fields);
+
+    void addItem(F feed, I item);
+}
@@ -0,0 +1,81 @@
+package main.java.com.meridian.utilities;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * Immutable result of ingesting one feed download: the parsed feed, the text items read to the
+ * user and their pre-rendered speech pages.
+ *
+ * The version is a hash of the items, so the same feed content gets the same version in every
+ * container.
+ */
+
+public class FeedSnapshot<F> {
+    private final F feed;
+    private final List<String> items;
+    private final SpeechPages pages;
+    private final String version;
+    private final long fetchedAt;
+    private final boolean stale;
+
+    public FeedSnapshot (F feed, List<String> items, SpeechPages pages, long fetchedAt) {
+        this(feed, items, pages, fetchedAt, false);
+    }
+
+    public FeedSnapshot (F feed, List<String> items, SpeechPages pages, long fetchedAt, boolean stale) {
+        this.feed = feed;
+        this.items = Collections.unmodifiableList(new ArrayList<String>(items));
+        this.pages = pages;
+        this.version = computeVersion(items);
+        this.fetchedAt = fetchedAt;
+        this.stale = stale;
+    }
+
+    /*
+     * 64 bit FNV-1a over the items, written as hex.
+     */
+    static String computeVersion(List<String> items) {
+        long hash = 0xcbf29ce484222325L;
+        for (String item : items) {
+            for (int i = 0; i < item.length(); i++) {
+                hash ^= item.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= 0x1f;
+            hash *= 0x100000001b3L;
+        }
+        return Long.toHexString(hash);
+    }
+
+    public F getFeed () {
+        return feed;
+    }
+
+    public List<String> getItems () {
+        return items;
+    }
+
+    public SpeechPages getPages () {
+        return pages;
+    }
+
+    public String getVersion () {
+        return version;
+    }
+
+    /**
+     * Wall clock time the feed was downloaded, in milliseconds.
+     */
+    public long getFetchedAt () {
+        return fetchedAt;
+    }
+
+    /**
+     * True for a snapshot restored from storage rather than downloaded by this container.
+     */
+    public boolean isStale () {
+        return stale;
+    }
+}
@@ -0,0 +1,273 @@
+package main.java.com.meridian.utilities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Keyword search over the articles of one news snapshot, built once when the snapshot is ingested.
+ *
+ * Titles, descriptions and bodies are split into lower case words, stop words are dropped and a
+ * trailing plural "s" is cut, so "offices" finds "office". Each word maps to a posting: the
+ * articles containing it and its weight in each, kept in parallel int arrays. A title word weighs
+ * more than a body word. A query scores every article by the weight of its words times their
+ * rarity across the snapshot, and the best articles come first.
+ *
+ * Most articles survive a feed refresh unchanged, so the words of each article are kept by a
+ * Builder shared across snapshots and only new or edited articles are tokenised again.
+ */
+
+public class NewsIndex {
+    private static final int TITLE_WEIGHT = 5;
+    private static final int DESCRIPTION_WEIGHT = 2;
+    private static final int BODY_WEIGHT = 1;
+
+    private static final Set<String> STOP_WORDS = new HashSet<String>(Arrays.asList(
+            "a", "about", "after", "all", "also", "an", "and", "any", "are", "as", "at", "be", "been", "but", "by",
+            "can", "could", "did", "do", "does", "for", "from", "had", "has", "have", "he", "her", "his", "how", "i",
+            "if", "in", "into", "is", "it", "its", "me", "more", "most", "my", "new", "news", "no", "not", "of",
+            "on", "or", "our", "out", "over", "said", "say", "says", "she", "so", "some", "than", "that", "the",
+            "their", "them", "there", "these", "they", "this", "to", "up", "was", "we", "were", "what", "when",
+            "which", "who", "will", "with", "would", "you", "your"));
+
+    private static final int[] NO_ARTICLES = new int[0];
+
+    private final Map<String, Posting> postings;
+    private final int articleCount;
+
+    private NewsIndex (Map<String, Posting> postings, int articleCount) {
+        this.postings = postings;
+        this.articleCount = articleCount;
+    }
+
+    /**
+     * Articles matching the query, best first, at most limit of them. Empty when no word of the
+     * query is in the index.
+     */
+    public int[] search(String query, int limit) {
+        if (query == null || articleCount == 0 || limit < 1) {
+            return NO_ARTICLES;
+        }
+        double[] scores = new double[articleCount];
+        boolean matched = false;
+        for (String word : tokenize(query)) {
+            Posting posting = postings.get(word);
+            if (posting == null) {
+                continue;
+            }
+            matched = true;
+            double rarity = Math.log(1.0 + (double) articleCount / posting.articles.length);
+            for (int i = 0; i < posting.articles.length; i++) {
+                scores[posting.articles[i]] += posting.weights[i] * rarity;
+            }
+        }
+        if (!matched) {
+            return NO_ARTICLES;
+        }
+
+        // Selection of the top few; limit is small, so this beats sorting every article
+        int[] found = new int[Math.min(limit, articleCount)];
+        int size = 0;
+        for (int article = 0; article < articleCount; article++) {
+            double score = scores[article];
+            if (score == 0) {
+                continue;
+            }
+            int position = size < found.length ? size++ : found.length;
+            while (position > 0 && scores[found[position - 1]] < score) {
+                if (position < found.length) {
+                    found[position] = found[position - 1];
+                }
+                position--;
+            }
+            if (position < found.length) {
+                found[position] = article;
+            }
+        }
+        return size == found.length ? found : Arrays.copyOf(found, size);
+    }
+
+    public int getArticleCount () {
+        return articleCount;
+    }
+
+    public int getWordCount () {
+        return postings.size();
+    }
+
+    /**
+     * The index words of the text, in order, with stop words dropped.
+     */
+    static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<String>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? Character.toLowerCase(text.charAt(i)) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (c == '\'' && word.length() > 0) {
+                // "tenant's" indexes as "tenant"; skip the rest of the word
+                while (i + 1 < text.length() && Character.isLetterOrDigit(text.charAt(i + 1))) {
+                    i++;
+                }
+            } else if (word.length() > 0) {
+                addWord(words, word);
+                word.setLength(0);
+            }
+        }
+        return words;
+    }
+
+    private static void addWord(List<String> words, StringBuilder word) {
+        int length = word.length();
+        if (length > 3 && word.charAt(length - 1) == 's' && word.charAt(length - 2) != 's') {
+            word.setLength(length - 1);
+        }
+        String value = word.toString();
+        if (!STOP_WORDS.contains(value)) {
+            words.add(value);
+        }
+    }
+
+    /*
+     * The articles containing one word and the word's weight in each, in article order.
+     */
+    private static final class Posting {
+        final int[] articles;
+        final int[] weights;
+
+        Posting (int[] articles, int[] weights) {
+            this.articles = articles;
+            this.weights = weights;
+        }
+    }
+
+    /*
+     * The weighted words of one article, kept across snapshots while the article is unchanged.
+     */
+    private static final class ArticleWords {
+        final String title;
+        final String description;
+        final String body;
+        final String[] words;
+        final int[] weights;
+
+        ArticleWords (String title, String description, String body) {
+            this.title = title;
+            this.description = description;
+            this.body = body;
+
+            Map<String, Integer> counts = new LinkedHashMap<String, Integer>();
+            count(counts, title, TITLE_WEIGHT);
+            count(counts, description, DESCRIPTION_WEIGHT);
+            count(counts, body, BODY_WEIGHT);
+            words = new String[counts.size()];
+            weights = new int[counts.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+                words[i] = entry.getKey();
+                weights[i++] = entry.getValue();
+            }
+        }
+
+        boolean isSameArticle(String title, String description, String body) {
+            return equal(this.title, title) && equal(this.description, description) && this.body.equals(body);
+        }
+
+        private static void count(Map<String, Integer> counts, String text, int weight) {
+            if (text == null) {
+                return;
+            }
+            for (String word : tokenize(text)) {
+                Integer count = counts.get(word);
+                counts.put(word, count == null ? weight : count + weight);
+            }
+        }
+
+        private static boolean equal(String a, String b) {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
+
+    /*
+     * Builds indexes for successive snapshots, reusing the words of articles it has seen before.
+     * Articles not in the latest snapshot of any feed are forgotten once the cache is full.
+     */
+    public static class Builder {
+        private final Map<String, ArticleWords> articles;
+        private long reused;
+        private long tokenized;
+
+        public Builder (final int maxArticles) {
+            articles = new LinkedHashMap<String, ArticleWords>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ArticleWords> eldest) {
+                    return size() > maxArticles;
+                }
+            };
+        }
+
+        /**
+         * Indexes the articles; the three lists hold the title, description and sanitised body of
+         * each article, in snapshot order.
+         */
+        public synchronized NewsIndex build(List<String> titles, List<String> descriptions, List<String> bodies) {
+            Map<String, List<int[]>> words = new HashMap<String, List<int[]>>();
+            for (int article = 0; article < bodies.size(); article++) {
+                String title = titles.get(article);
+                String description = descriptions.get(article);
+                String body = bodies.get(article);
+
+                String key = title + '\u0000' + body.length() + '\u0000' + body.hashCode();
+                ArticleWords articleWords = articles.get(key);
+                if (articleWords != null && articleWords.isSameArticle(title, description, body)) {
+                    reused++;
+                } else {
+                    articleWords = new ArticleWords(title, description, body);
+                    articles.put(key, articleWords);
+                    tokenized++;
+                }
+
+                for (int i = 0; i < articleWords.words.length; i++) {
+                    List<int[]> posting = words.get(articleWords.words[i]);
+                    if (posting == null) {
+                        posting = new ArrayList<int[]>(2);
+                        words.put(articleWords.words[i], posting);
+                    }
+                    posting.add(new int[] {article, articleWords.weights[i]});
+                }
+            }
+
+            Map<String, Posting> postings = new HashMap<String, Posting>(words.size() * 2);
+            for (Map.Entry<String, List<int[]>> entry : words.entrySet()) {
+                List<int[]> list = entry.getValue();
+                int[] postingArticles = new int[list.size()];
+                int[] postingWeights = new int[list.size()];
+                for (int i = 0; i < list.size(); i++) {
+                    postingArticles[i] = list.get(i)[0];
+                    postingWeights[i] = list.get(i)[1];
+                }
+                postings.put(entry.getKey(), new Posting(postingArticles, postingWeights));
+            }
+            return new NewsIndex(postings, bodies.size());
+        }
+
+        public synchronized long getReusedCount () {
+            return reused;
+        }
+
+        public synchronized long getTokenizedCount () {
+            return tokenized;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return "NewsIndex.Builder [articles=" + articles.size() + ", reused=" + reused + ", tokenized=" + tokenized + "]";
+        }
+    }
+}
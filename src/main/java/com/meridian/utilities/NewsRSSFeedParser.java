@@ -2,12 +2,6 @@ package main.java.com.meridian.utilities;
 
 import main.java.com.meridian.exception.FileReaderException;
 
-import javax.xml.stream.XMLEventReader;
-import javax.xml.stream.XMLInputFactory;
-import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Characters;
-import javax.xml.stream.events.XMLEvent;
-import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -23,6 +17,66 @@ public class NewsRSSFeedParser {
 
     static final String CONTENTENCODED= "encoded";
 
+    // Field numbers of the elements above
+    private static final int TITLE_FIELD = 0;
+    private static final int LINK_FIELD = 1;
+    private static final int DESCRIPTION_FIELD = 2;
+    private static final int LANGUAGE_FIELD = 3;
+    private static final int DOCS_FIELD = 4;
+    private static final int CONTENTENCODED_FIELD = 5;
+
+    static final FeedMapping<NewsFeed, NewsFeedMessage> NEWS_MAPPING = new FeedMapping<NewsFeed, NewsFeedMessage>() {
+        @Override
+        public String getItemElement() {
+            return ITEM;
+        }
+
+        @Override
+        public int getFieldCount() {
+            return 6;
+        }
+
+        @Override
+        public int getField(String localName) {
+            switch (localName) {
+                case TITLE:
+                    return TITLE_FIELD;
+                case LINK:
+                    return LINK_FIELD;
+                case DESCRIPTION:
+                    return DESCRIPTION_FIELD;
+                case LANGUAGE:
+                    return LANGUAGE_FIELD;
+                case DOCS:
+                    return DOCS_FIELD;
+                case CONTENTENCODED:
+                    return CONTENTENCODED_FIELD;
+                default:
+                    return -1;
+            }
+        }
+
+        @Override
+        public NewsFeed newFeed(String[] header) {
+            return new NewsFeed(header[TITLE_FIELD], header[LINK_FIELD], header[DESCRIPTION_FIELD],
+                    header[LANGUAGE_FIELD], header[DOCS_FIELD]);
+        }
+
+        @Override
+        public NewsFeedMessage newItem(String[] fields) {
+            NewsFeedMessage message = new NewsFeedMessage();
+            message.setTitle(fields[TITLE_FIELD]);
+            message.setDescription(fields[DESCRIPTION_FIELD]);
+            message.setEncodedContent(fields[CONTENTENCODED_FIELD]);
+            return message;
+        }
+
+        @Override
+        public void addItem(NewsFeed feed, NewsFeedMessage item) {
+            feed.getMessages().add(item);
+        }
+    };
+
     final URL url;
 
     public NewsRSSFeedParser (String feedUrl) {
@@ -34,92 +88,18 @@ public class NewsRSSFeedParser {
     }
 
     public NewsFeed readFeed() throws FileReaderException {
-        NewsFeed newsFeed = null;
-        try {
-            boolean isFeedHeader = true;
-            // Set header values intial to the empty string
-            String title = "";
-            String docs = "";
-            String description = "";
-            String channelTitle = "";
-            String newsTitle = "";
-            String link = "";
-            String language = "";
-            String summary = "";
-            String encodedContent = "";
-
-            // First create a new XMLInputFactory
-            XMLInputFactory inputFactory = XMLInputFactory.newInstance();
-            // Setup a new eventReader
-            InputStream in = read();
-            XMLEventReader eventReader = inputFactory.createXMLEventReader(in);
-            // read the XML document
-            while (eventReader.hasNext()) {
-                XMLEvent event = eventReader.nextEvent();
-                if (event.isStartElement()) {
-                    String localPart = event.asStartElement().getName()
-                            .getLocalPart();
-                    switch (localPart) {
-                        case ITEM:
-                            if (isFeedHeader) {
-                                isFeedHeader = false;
-                                newsFeed = new NewsFeed(title, link, description, language, docs);
-                            }
-                            event = eventReader.nextEvent();
-                            break;
-                        case TITLE:
-                            title = getCharacterData(event, eventReader);
-                            break;
-                        case DESCRIPTION:
-                            description = getCharacterData(event, eventReader);
-                            break;
-                        case LINK:
-                            link = getCharacterData(event, eventReader);
-                            break;
-                        case LANGUAGE:
-                            language = getCharacterData(event, eventReader);
-                            break;
-                        case CONTENTENCODED:
-                            encodedContent = getCharacterData(event, eventReader);
-                            break;
-                        case DOCS:
-                            docs = getCharacterData(event, eventReader);
-                            break;
-                    }
-                } else if (event.isEndElement()) {
-                    if (event.asEndElement().getName().getLocalPart() == (ITEM)) {
-                        NewsFeedMessage message = new NewsFeedMessage();
-                        message.setTitle(title);
-                        message.setDescription(description);
-                        message.setEncodedContent(encodedContent);
-                        newsFeed.getMessages().add(message);
-                        event = eventReader.nextEvent();
-                        continue;
-                    }
-                }
-            }
-        } catch (XMLStreamException e) {
-            throw new FileReaderException(e.toString());
-        }
-        return newsFeed;
+        return readFeed(Integer.MAX_VALUE);
     }
 
-    private String getCharacterData(XMLEvent event, XMLEventReader eventReader)
-            throws XMLStreamException {
-        String result = "";
-        event = eventReader.nextEvent();
-        if (event instanceof Characters) {
-            result = event.asCharacters().getData();
-//            System.out.println(result);
-        }
-        return result;
-    }
-
-    private InputStream read() throws FileReaderException {
-        try {
-            return url.openStream();
-        } catch (IOException e) {
-            throw new FileReaderException(e.toString());
-        }
+    /**
+     * Reads the feed header and at most itemLimit items; the rest of the document is not parsed.
+     */
+    public NewsFeed readFeed(final int itemLimit) throws FileReaderException {
+        return FeedFetcher.getFeedFetcher().fetch(url, itemLimit, new FeedFetcher.BodyParser<NewsFeed>() {
+            @Override
+            public NewsFeed parse(InputStream in) throws FileReaderException {
+                return StaxFeedEngine.parse(in, NEWS_MAPPING, itemLimit);
+            }
+        });
     }
 }
@@ -0,0 +1,51 @@
+package main.java.com.meridian.utilities;
+
+import java.util.List;
+
+/*
+ * A news snapshot: the article segments and their pages, as any snapshot, plus what keyword search
+ * needs to answer without scanning anything: the index, the article titles and the segment each
+ * article starts with.
+ */
+
+public class NewsSnapshot extends FeedSnapshot<NewsFeed> {
+    private final NewsIndex index;
+    private final List<String> titles;
+    private final int[] firstItems;
+
+    /**
+     * @param items the segments read to the user, article after article
+     * @param titles the title of each indexed article
+     * @param firstItems the first segment of each indexed article
+     */
+    public NewsSnapshot (NewsFeed feed, List<String> items, SpeechPages pages, NewsIndex index, List<String> titles,
+                         int[] firstItems, long fetchedAt, boolean stale) {
+        super(feed, items, pages, fetchedAt, stale);
+        this.index = index;
+        this.titles = titles;
+        this.firstItems = firstItems;
+    }
+
+    public NewsIndex getIndex () {
+        return index;
+    }
+
+    /**
+     * Articles matching the spoken topic, best first; empty when none match.
+     */
+    public int[] search(String topic, int limit) {
+        return index.search(topic, limit);
+    }
+
+    public String getTitle(int article) {
+        return titles.get(article);
+    }
+
+    /**
+     * The first segment of the article; reading on from its page continues with the articles
+     * after it.
+     */
+    public int getFirstItem(int article) {
+        return firstItems[article];
+    }
+}
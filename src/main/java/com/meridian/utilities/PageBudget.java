@@ -0,0 +1,61 @@
+package main.java.com.meridian.utilities;
+
+/*
+ * How much one page of speech may hold: a cap on the characters of its SSML, which keeps every
+ * response inside Alexa's output limit, and a cap on its estimated speaking time, which keeps a
+ * turn short enough to listen to.
+ */
+
+public class PageBudget {
+    private final int maxCharacters;
+    private final int maxSpeakingSeconds;
+    private final int wordsPerMinute;
+
+    public PageBudget (int maxCharacters, int maxSpeakingSeconds, int wordsPerMinute) {
+        if (maxCharacters < 1 || maxSpeakingSeconds < 1 || wordsPerMinute < 1) {
+            throw new IllegalArgumentException("Page budget limits must be positive: " + maxCharacters + " characters, "
+                    + maxSpeakingSeconds + " seconds, " + wordsPerMinute + " words per minute");
+        }
+        this.maxCharacters = maxCharacters;
+        this.maxSpeakingSeconds = maxSpeakingSeconds;
+        this.wordsPerMinute = wordsPerMinute;
+    }
+
+    public int getMaxCharacters () {
+        return maxCharacters;
+    }
+
+    public int getMaxSpeakingSeconds () {
+        return maxSpeakingSeconds;
+    }
+
+    /**
+     * True when SSML of this many characters, holding this many words, fits on one page.
+     */
+    public boolean fits(int characters, int words) {
+        return characters <= maxCharacters && words * 60L <= (long) maxSpeakingSeconds * wordsPerMinute;
+    }
+
+    /**
+     * The words of plain text, as counted against the speaking time.
+     */
+    public static int countWords(String text) {
+        int words = 0;
+        boolean inWord = false;
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                inWord = false;
+            } else if (!inWord) {
+                inWord = true;
+                words++;
+            }
+        }
+        return words;
+    }
+
+    @Override
+    public String toString() {
+        return "PageBudget [maxCharacters=" + maxCharacters + ", maxSpeakingSeconds=" + maxSpeakingSeconds
+                + ", wordsPerMinute=" + wordsPerMinute + "]";
+    }
+}
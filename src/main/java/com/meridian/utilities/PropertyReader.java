@@ -3,112 +3,322 @@ package main.java.com.meridian.utilities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Map;
 import java.util.Properties;
 
+/*
+ * The skill's configuration, read from skill.properties.
+ *
+ * The file is looked up in order: the path in the skill.properties system property or the
+ * SKILL_PROPERTIES environment variable, skill.properties in the working directory, then
+ * skill.properties on the classpath. Its values are held in an immutable SkillConfiguration
+ * behind a volatile reference, so getters never lock. A file named by the property or variable is
+ * watched, and a change is read into a new SkillConfiguration that replaces the old one in a single
+ * write. The working directory copy is read once: in Lambda it is the deployed file, which never
+ * changes, and a watcher thread would only slow every cold start.
+ * Prompts, feed URLs, aliases and the latency budget apply to the next request; pool sizes and
+ * the settings fixed when caches and pages are built apply at the next start.
+ */
+
 public class PropertyReader {
     private static final Logger log = LoggerFactory.getLogger(PropertyReader.class);
 
-    private static PropertyReader propertyReader;
-    private String skillName = "";
-    private String newsFeedUrl= "";
-    private String ratesFeedUrl= "";
-    private boolean propertyRead = false;
-    private String fatalError = "";
-    private String welcomeMessage = "";
-    private String speechHelp = "";
-    private String goodBye = "";
-    private String speechReprompt= "";
-    private String speechSorry = "";
-    private String skillId = "";
+    private static final String PROPERTIES_NAME = "skill.properties";
+    private static final String OVERRIDE_PROPERTY = "skill.properties";
+    private static final String OVERRIDE_VARIABLE = "SKILL_PROPERTIES";
 
-    private PropertyReader() {
-        Properties skillProperties = new Properties();
-        InputStream input = null;
+    private static final PropertyReader propertyReader = new PropertyReader();
 
-        try {
-            input = new FileInputStream("skill.properties");
-            // load a properties file
+    private final File file;
+    private volatile SkillConfiguration configuration;
 
-            skillProperties.load(input);
-            skillName = skillProperties.getProperty("skill");
-            newsFeedUrl= skillProperties.getProperty("news-rss-feed-url");
-            ratesFeedUrl= skillProperties.getProperty("rates-rss-feed-url");
+    private PropertyReader() {
+        File override = findOverride();
+        file = override != null ? override : findInWorkingDirectory();
+        configuration = load(file);
+        if (override != null && configuration.isPropertyRead()) {
+            try {
+                new ConfigurationWatcher(file.toPath(), new Runnable() {
+                    @Override
+                    public void run() {
+                        reload();
+                    }
+                }).start();
+            } catch (IOException e) {
+                log.warn("Cannot watch " + file + ", changes will need a restart", e);
+            }
+        }
+    }
 
-            fatalError = skillProperties.getProperty("speech-fatal-error");
-            welcomeMessage = skillProperties.getProperty("speech-welcome");
-            speechHelp = skillProperties.getProperty("speech-help");
-            goodBye = skillProperties.getProperty("speech-goodbye");
-            speechSorry = skillProperties.getProperty("speech-sorry");
-            speechReprompt = skillProperties.getProperty("speech-reprompt");
-            log.debug("in SINGLETOn - speechSorry " + speechSorry);
-            log.info("Coming from LOG 4 J - The skill name is :- " + skillName);
-            log.debug("Coming from LOG 4 J - The skill name is :- " + skillName);
+    /*
+     * The properties file named by the system property or environment variable, or null.
+     */
+    private static File findOverride() {
+        String override = System.getProperty(OVERRIDE_PROPERTY);
+        if (override == null || override.trim().isEmpty()) {
+            override = System.getenv(OVERRIDE_VARIABLE);
+        }
+        return override != null && !override.trim().isEmpty() ? new File(override.trim()) : null;
+    }
 
-            skillId = skillProperties.getProperty("skill-id");
+    /*
+     * The properties file in the working directory, or null to read the one on the classpath.
+     */
+    private static File findInWorkingDirectory() {
+        File workingDirectory = new File(PROPERTIES_NAME);
+        return workingDirectory.isFile() ? workingDirectory : null;
+    }
 
-            propertyRead = true;
+    private static SkillConfiguration load(File file) {
+        Properties skillProperties = new Properties();
+        String source = file != null ? file.getAbsolutePath() : "classpath:" + PROPERTIES_NAME;
+        InputStream input = null;
+        try {
+            input = file != null ? new FileInputStream(file)
+                    : PropertyReader.class.getClassLoader().getResourceAsStream(PROPERTIES_NAME);
+            if (input == null) {
+                throw new IOException("No " + PROPERTIES_NAME + " on the classpath");
+            }
+            skillProperties.load(input);
+        } catch (IOException ioException) {
+            log.error("Coming from LOG 4 J - Skill Property file not loaded from " + source, ioException);
+            return new SkillConfiguration(new Properties(), "defaults", false);
+        } finally {
+            if (input != null) {
+                try {
+                    input.close();
+                } catch (IOException e) {
+                    log.warn("Could not close " + source, e);
+                }
+            }
+        }
 
-            log.info("Coming from LOG 4 J - The skill name is :- " + skillName);
-            log.info("Coming from LOG 4 J - The news feed URL is :- " + newsFeedUrl);
+        SkillConfiguration configuration = new SkillConfiguration(skillProperties, source, true);
+        log.info("Coming from LOG 4 J - The skill name is :- " + configuration.getSkillName());
+        log.info("Coming from LOG 4 J - The news feed URL is :- " + configuration.getNewsFeedUrl());
+        return configuration;
+    }
 
-        } catch (IOException ioException) {
-             propertyRead = false;
-            log.error("Coming from LOG 4 J - Skill Property file not loaded");
+    /**
+     * Reads the properties again and publishes them. A file that cannot be read leaves the current
+     * configuration in place.
+     */
+    public void reload() {
+        SkillConfiguration reloaded = load(file);
+        if (!reloaded.isPropertyRead()) {
+            log.error("Keeping the configuration from " + configuration.getSource());
+            return;
         }
+        configuration = reloaded;
+        log.info("Reloaded the configuration from " + reloaded.getSource());
+    }
 
+    /**
+     * The whole configuration as one consistent snapshot, for reading several values together
+     * or noticing that it changed.
+     */
+    public SkillConfiguration getConfiguration () {
+        return configuration;
     }
 
     public String getSkillId () {
-        return skillId;
+        return configuration.getSkillId();
     }
 
     public String getSpeechReprompt () {
-        return speechReprompt;
+        return configuration.getSpeechReprompt();
     }
 
     public String getSpeechSorry () {
-        return speechSorry;
+        return configuration.getSpeechSorry();
     }
 
     public String getGoodBye () {
-        return goodBye;
+        return configuration.getGoodBye();
     }
 
     public String getSpeechHelp () {
-        return speechHelp;
+        return configuration.getSpeechHelp();
     }
 
     public String getFatalError () {
-        return fatalError;
+        return configuration.getFatalError();
     }
 
     public String getWelcomeMessage () {
-        return welcomeMessage;
+        return configuration.getWelcomeMessage();
     }
 
     public boolean isPropertyRead () {
-        return propertyRead;
+        return configuration.isPropertyRead();
     }
 
     public String getSkillName () {
-        return skillName;
+        return configuration.getSkillName();
     }
 
     public String getNewsFeedUrl () {
-        return newsFeedUrl;
+        return configuration.getNewsFeedUrl();
     }
 
     public String getRatesFeedUrl () {
-        return ratesFeedUrl;
+        return configuration.getRatesFeedUrl();
+    }
+
+    public int getNewsCacheTtlSeconds () {
+        return configuration.getNewsCacheTtlSeconds();
+    }
+
+    public int getNewsItemLimit () {
+        return configuration.getNewsItemLimit();
+    }
+
+    public int getRatesCacheTtlSeconds () {
+        return configuration.getRatesCacheTtlSeconds();
+    }
+
+    /**
+     * Directory for last known good feed snapshots.
+     */
+    public String getSnapshotDirectory () {
+        return configuration.getSnapshotDirectory();
+    }
+
+    public String getNewsDefaultCity () {
+        return configuration.getNewsDefaultCity();
+    }
+
+    /**
+     * News feed URL per city key, e.g. "chicago" or "new-york".
+     */
+    public Map<String, String> getNewsCityFeedUrls () {
+        return configuration.getNewsCityFeedUrls();
+    }
+
+    /**
+     * Rate name per spoken alias, e.g. "lyeber" for "libor".
+     */
+    public Map<String, String> getRateAliases () {
+        return configuration.getRateAliases();
+    }
+
+    public int getNewsFetchThreads () {
+        return configuration.getNewsFetchThreads();
+    }
+
+    public int getArticleStoreMaxSnapshots () {
+        return configuration.getArticleStoreMaxSnapshots();
+    }
+
+    public int getArticleChunkWords () {
+        return configuration.getArticleChunkWords();
+    }
+
+    public int getPageMaxCharacters () {
+        return configuration.getPageMaxCharacters();
+    }
+
+    public int getPageMaxSpeakingSeconds () {
+        return configuration.getPageMaxSpeakingSeconds();
+    }
+
+    public int getSpeakingWordsPerMinute () {
+        return configuration.getSpeakingWordsPerMinute();
+    }
+
+    public boolean isPrimeOnInit () {
+        return configuration.isPrimeOnInit();
+    }
+
+    public String getWarmupEventField () {
+        return configuration.getWarmupEventField();
+    }
+
+    public String getWarmupEventValue () {
+        return configuration.getWarmupEventValue();
+    }
+
+    public int getWarmupBudgetMillis () {
+        return configuration.getWarmupBudgetMillis();
+    }
+
+    public int getFeedConnectTimeoutMillis () {
+        return configuration.getFeedConnectTimeoutMillis();
+    }
+
+    public int getFeedReadTimeoutMillis () {
+        return configuration.getFeedReadTimeoutMillis();
+    }
+
+    public int getFeedMaxConnectionsPerHost () {
+        return configuration.getFeedMaxConnectionsPerHost();
+    }
+
+    public int getProgressiveResponseThreads () {
+        return configuration.getProgressiveResponseThreads();
+    }
+
+    public int getProgressiveResponseTimeoutMillis () {
+        return configuration.getProgressiveResponseTimeoutMillis();
+    }
+
+    public int getLatencyBudgetMillis () {
+        return configuration.getLatencyBudgetMillis();
+    }
+
+    public boolean isAsOfWording () {
+        return configuration.isAsOfWording();
+    }
+
+    public int getServerPort () {
+        return configuration.getServerPort();
+    }
+
+    public String getServerSkillPath () {
+        return configuration.getServerSkillPath();
+    }
+
+    public int getServerMinThreads () {
+        return configuration.getServerMinThreads();
+    }
+
+    public int getServerMaxThreads () {
+        return configuration.getServerMaxThreads();
+    }
+
+    public int getServerQueueCapacity () {
+        return configuration.getServerQueueCapacity();
+    }
+
+    public int getServerIdleTimeoutMillis () {
+        return configuration.getServerIdleTimeoutMillis();
+    }
+
+    public String getSharedSnapshotTable () {
+        return configuration.getSharedSnapshotTable();
+    }
+
+    public String getSharedSnapshotRegion () {
+        return configuration.getSharedSnapshotRegion();
+    }
+
+    public String getSharedSnapshotEndpoint () {
+        return configuration.getSharedSnapshotEndpoint();
+    }
+
+    public int getSharedSnapshotLeaseSeconds () {
+        return configuration.getSharedSnapshotLeaseSeconds();
+    }
+
+    public int getSharedSnapshotWaitMillis () {
+        return configuration.getSharedSnapshotWaitMillis();
     }
 
     public static PropertyReader getPropertyReader () {
-        if (propertyReader == null) {
-            propertyReader = new PropertyReader();
-        }
         return propertyReader;
     }
 
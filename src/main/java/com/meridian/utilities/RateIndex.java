@@ -0,0 +1,108 @@
+package main.java.com.meridian.utilities;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Lookup of rates by the name a user speaks, built once per rates snapshot.
+ *
+ * Every rate is indexed under its full name, its symbol and each word of its name, so "prime",
+ * "10 year treasury" and "swap" all find their rates. Spoken aliases map a word Alexa hears, such
+ * as "lyeber", to the key it stands for, such as "libor". Keys are normalised: lower case, with
+ * runs of anything but letters and digits collapsed to one space.
+ */
+
+public class RateIndex {
+    private final Map<String, int[]> positions;
+
+    private RateIndex (Map<String, int[]> positions) {
+        this.positions = positions;
+    }
+
+    /**
+     * Indexes the rates in feed order. An alias whose target is not a key of the feed is ignored.
+     */
+    public static RateIndex build(CompactRates rates, Map<String, String> aliases) {
+        Map<String, Set<Integer>> keys = new HashMap<String, Set<Integer>>();
+        for (int i = 0; i < rates.size(); i++) {
+            String name = normalize(rates.getName(i));
+            add(keys, name, i);
+            add(keys, normalize(rates.getSymbol(i)), i);
+            for (String word : name.split(" ")) {
+                add(keys, word, i);
+            }
+        }
+
+        Map<String, int[]> positions = new HashMap<String, int[]>();
+        for (Map.Entry<String, Set<Integer>> entry : keys.entrySet()) {
+            positions.put(entry.getKey(), toArray(entry.getValue()));
+        }
+        for (Map.Entry<String, String> alias : aliases.entrySet()) {
+            int[] target = positions.get(normalize(alias.getValue()));
+            String key = normalize(alias.getKey());
+            if (target != null && !key.isEmpty() && !positions.containsKey(key)) {
+                positions.put(key, target);
+            }
+        }
+        return new RateIndex(positions);
+    }
+
+    /**
+     * Positions, in feed order, of the rates matching the spoken name; empty when none match.
+     */
+    public int[] findPositions(String spokenName) {
+        if (spokenName == null) {
+            return new int[0];
+        }
+        int[] found = positions.get(normalize(spokenName));
+        return found == null ? new int[0] : found.clone();
+    }
+
+    public int size () {
+        return positions.size();
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder key = new StringBuilder(text.length());
+        boolean separator = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                if (separator && key.length() > 0) {
+                    key.append(' ');
+                }
+                key.append(c);
+                separator = false;
+            } else {
+                separator = true;
+            }
+        }
+        return key.toString();
+    }
+
+    private static void add(Map<String, Set<Integer>> keys, String key, int position) {
+        if (key.isEmpty()) {
+            return;
+        }
+        Set<Integer> found = keys.get(key);
+        if (found == null) {
+            found = new LinkedHashSet<Integer>();
+            keys.put(key, found);
+        }
+        found.add(position);
+    }
+
+    private static int[] toArray(Set<Integer> values) {
+        int[] array = new int[values.size()];
+        int i = 0;
+        for (Integer value : values) {
+            array[i++] = value;
+        }
+        return array;
+    }
+}
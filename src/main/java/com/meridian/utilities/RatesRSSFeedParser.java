@@ -2,12 +2,6 @@ package main.java.com.meridian.utilities;
 
 import main.java.com.meridian.exception.FileReaderException;
 
-import javax.xml.stream.XMLEventReader;
-import javax.xml.stream.XMLInputFactory;
-import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Characters;
-import javax.xml.stream.events.XMLEvent;
-import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -22,6 +16,59 @@ public class RatesRSSFeedParser {
     static final String RECORD = "record";
     static final String TFC_RECORDS = "TFCrecords";
 
+    // Field numbers of the elements above
+    private static final int NAME_FIELD = 0;
+    private static final int QUOTE_DATE_FIELD = 1;
+    private static final int VALUE_FIELD = 2;
+    private static final int SYMBOL_FIELD = 3;
+
+    static final FeedMapping<RatesFeed, RatesFeedMessage> RATES_MAPPING = new FeedMapping<RatesFeed, RatesFeedMessage>() {
+        @Override
+        public String getItemElement() {
+            return RECORD;
+        }
+
+        @Override
+        public int getFieldCount() {
+            return 4;
+        }
+
+        @Override
+        public int getField(String localName) {
+            switch (localName) {
+                case NAME:
+                    return NAME_FIELD;
+                case QUOTE_DATE:
+                    return QUOTE_DATE_FIELD;
+                case VALUE:
+                    return VALUE_FIELD;
+                case SYMBOL:
+                    return SYMBOL_FIELD;
+                default:
+                    return -1;
+            }
+        }
+
+        @Override
+        public RatesFeed newFeed(String[] header) {
+            return new RatesFeed();
+        }
+
+        @Override
+        public RatesFeedMessage newItem(String[] fields) {
+            RatesFeedMessage message = new RatesFeedMessage();
+            message.setQuoteDate(fields[QUOTE_DATE_FIELD]);
+            message.setName(fields[NAME_FIELD]);
+            message.setValue(fields[VALUE_FIELD]);
+            message.setSymbol(fields[SYMBOL_FIELD]);
+            return message;
+        }
+
+        @Override
+        public void addItem(RatesFeed feed, RatesFeedMessage item) {
+            feed.getMessages().add(item);
+        }
+    };
 
     final URL url;
 
@@ -34,83 +81,11 @@ public class RatesRSSFeedParser {
     }
 
     public RatesFeed readFeed() throws FileReaderException {
-        RatesFeed feed = null;
-        try {
-            boolean isFeedHeader = true;
-            // Set header values intial to the empty string
-            String name = "";
-            String quoteDate = "";
-            String value = "";
-            String symbol = "";
-
-            // First create a new XMLInputFactory
-            XMLInputFactory inputFactory = XMLInputFactory.newInstance();
-            // Setup a new eventReader
-            InputStream in = read();
-            XMLEventReader eventReader = inputFactory.createXMLEventReader(in);
-            // read the XML document
-            while (eventReader.hasNext()) {
-                XMLEvent event = eventReader.nextEvent();
-                if (event.isStartElement()) {
-                    String localPart = event.asStartElement().getName()
-                            .getLocalPart();
-                    switch (localPart) {
-                        case TFC_RECORDS:
-                            if (isFeedHeader) {
-                                isFeedHeader = false;
-                                feed = new RatesFeed();
-                            }
-                            event = eventReader.nextEvent();
-                            break;
-                        case NAME:
-                            name = getCharacterData(event, eventReader);
-                            break;
-                        case QUOTE_DATE:
-                            quoteDate = getCharacterData(event, eventReader);
-                            break;
-                        case VALUE:
-                            value= getCharacterData(event, eventReader);
-                            break;
-                        case SYMBOL:
-                            symbol = getCharacterData(event, eventReader);
-                            break;
-                    }
-                } else if (event.isEndElement()) {
-                    if (event.asEndElement().getName().getLocalPart() == (RECORD)) {
-                        RatesFeedMessage message = new RatesFeedMessage();
-                        message.setQuoteDate(quoteDate);
-                        message.setName(name);
-                        message.setValue(value);
-                        message.setSymbol(symbol);
-
-                        feed.getMessages().add(message);
-                        event = eventReader.nextEvent();
-                        continue;
-                    }
-                }
+        return FeedFetcher.getFeedFetcher().fetch(url, new FeedFetcher.BodyParser<RatesFeed>() {
+            @Override
+            public RatesFeed parse(InputStream in) throws FileReaderException {
+                return StaxFeedEngine.parse(in, RATES_MAPPING);
             }
-        } catch (XMLStreamException e) {
-            throw new FileReaderException(e.toString());
-        }
-        return feed;
-    }
-
-    private String getCharacterData(XMLEvent event, XMLEventReader eventReader)
-            throws XMLStreamException {
-        String result = "";
-        event = eventReader.nextEvent();
-        if (event instanceof Characters) {
-            result = event.asCharacters().getData();
-            System.out.println(result);
-        }
-        return result;
-    }
-
-    private InputStream read() throws FileReaderException {
-        try {
-            return url.openStream();
-        } catch (IOException e) {
-            throw new FileReaderException(e.toString());
-        }
+        });
     }
 }
@@ -0,0 +1,47 @@
+package main.java.com.meridian.utilities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * A rates snapshot: the rates in compact typed form, their sentences and pages, rendered once, and
+ * the lookup index, so a request for one rate neither formats nor scans anything.
+ */
+
+public class RatesSnapshot extends FeedSnapshot<CompactRates> {
+    private final RateIndex index;
+
+    private RatesSnapshot (CompactRates rates, List<String> sentences, SpeechPages pages, RateIndex index, long fetchedAt,
+                           boolean stale) {
+        super(rates, sentences, pages, fetchedAt, stale);
+        this.index = index;
+    }
+
+    /**
+     * Converts the parsed feed and packs its sentences into pages within the budget.
+     */
+    public static RatesSnapshot of(RatesFeed feed, Map<String, String> aliases, PageBudget budget, String separator,
+                                   String morePrompt, long fetchedAt, boolean stale) {
+        CompactRates rates = CompactRates.of(feed);
+        List<String> sentences = rates.toSentences();
+        SpeechPages pages = SpeechPages.render(sentences, budget, separator, morePrompt);
+        return new RatesSnapshot(rates, sentences, pages, RateIndex.build(rates, aliases), fetchedAt, stale);
+    }
+
+    public RateIndex getIndex () {
+        return index;
+    }
+
+    /**
+     * The sentences of the rates matching the spoken name, in feed order; empty when none match.
+     */
+    public List<String> findSentences(String spokenName) {
+        int[] positions = index.findPositions(spokenName);
+        List<String> sentences = new ArrayList<String>(positions.length);
+        for (int position : positions) {
+            sentences.add(getItems().get(position));
+        }
+        return sentences;
+    }
+}
@@ -0,0 +1,155 @@
+package main.java.com.meridian.utilities;
+
+import main.java.com.meridian.exception.FileReaderException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Loads a feed through the shared DynamoSnapshotStore, so that across all containers a feed is
+ * fetched from upstream about once per TTL however many containers there are.
+ *
+ * A shared copy younger than the TTL is used as is. Otherwise the container that gets the refresh
+ * lease fetches the feed and shares it, while the others keep using the older shared copy. When
+ * nothing is shared yet, the others poll for the copy the lease holder is about to share for a
+ * short wait, well inside a request's latency budget, and fetch the feed themselves when none
+ * appears by then.
+ */
+
+public class SharedFeedLoader<F> {
+    private static final Logger log = LoggerFactory.getLogger(SharedFeedLoader.class);
+
+    private static final long POLL_MILLIS = 250;
+
+    /**
+     * Fetches and parses the feed from upstream.
+     */
+    public interface Fetcher<F> {
+        F fetch(String feedUrl) throws FileReaderException;
+    }
+
+    private final DynamoSnapshotStore store;
+    private final SnapshotFileStore.Codec<F> codec;
+    private final Fetcher<F> upstream;
+    private final long ttlMillis;
+    private final long waitMillis;
+    private final String owner;
+
+    private final AtomicLong sharedHits = new AtomicLong();
+    private final AtomicLong leaseWaits = new AtomicLong();
+    private final AtomicLong upstreamFetches = new AtomicLong();
+
+    public SharedFeedLoader (DynamoSnapshotStore store, SnapshotFileStore.Codec<F> codec, Fetcher<F> upstream,
+                             int ttlSeconds, long waitMillis) {
+        this(store, codec, upstream, ttlSeconds, waitMillis, newOwner());
+    }
+
+    /**
+     * @param waitMillis longest wait for another container's first copy of a feed, capped at the
+     *                   lease time
+     * @param owner names this container in the lease; unique per container
+     */
+    public SharedFeedLoader (DynamoSnapshotStore store, SnapshotFileStore.Codec<F> codec, Fetcher<F> upstream,
+                             int ttlSeconds, long waitMillis, String owner) {
+        this.store = store;
+        this.codec = codec;
+        this.upstream = upstream;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.waitMillis = Math.min(waitMillis, store.getLeaseMillis());
+        this.owner = owner;
+    }
+
+    private static String newOwner() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + "/" + UUID.randomUUID();
+    }
+
+    /**
+     * The feed with the time it was fetched from upstream, which is earlier than now when it is
+     * a shared copy.
+     */
+    public SnapshotFileStore.Stored<F> load(String feedUrl) throws FileReaderException {
+        SnapshotFileStore.Stored<F> shared = store.load(feedUrl, codec);
+        long staleBefore = System.currentTimeMillis() - ttlMillis;
+        if (shared != null && shared.getFetchedAt() >= staleBefore) {
+            sharedHits.incrementAndGet();
+            return shared;
+        }
+
+        boolean leased = store.tryAcquireLease(feedUrl, owner, staleBefore);
+        if (!leased) {
+            // Another container is refreshing it, or has just shared a fresh copy
+            if (shared != null) {
+                leaseWaits.incrementAndGet();
+                return shared;
+            }
+            long giveUpAt = System.currentTimeMillis() + waitMillis;
+            long left;
+            while (!leased && (left = giveUpAt - System.currentTimeMillis()) > 0) {
+                try {
+                    Thread.sleep(Math.min(POLL_MILLIS, left));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new FileReaderException("Interrupted while waiting for the shared copy of " + feedUrl, e);
+                }
+                shared = store.load(feedUrl, codec);
+                if (shared != null) {
+                    leaseWaits.incrementAndGet();
+                    return shared;
+                }
+                // The lease holder may have failed and given the lease up
+                leased = store.tryAcquireLease(feedUrl, owner, System.currentTimeMillis() - ttlMillis);
+            }
+        }
+
+        F feed;
+        try {
+            upstreamFetches.incrementAndGet();
+            feed = upstream.fetch(feedUrl);
+        } catch (FileReaderException | RuntimeException e) {
+            if (leased) {
+                store.releaseLease(feedUrl, owner);
+            }
+            throw e;
+        }
+        long fetchedAt = System.currentTimeMillis();
+        if (leased) {
+            store.save(feedUrl, feed, fetchedAt, codec, owner);
+        } else {
+            log.info("Fetched " + feedUrl + " without the lease, nothing was shared for it yet");
+        }
+        return new SnapshotFileStore.Stored<F>(feed, fetchedAt);
+    }
+
+    public String getOwner () {
+        return owner;
+    }
+
+    public long getSharedHitCount () {
+        return sharedHits.get();
+    }
+
+    public long getLeaseWaitCount () {
+        return leaseWaits.get();
+    }
+
+    public long getUpstreamFetchCount () {
+        return upstreamFetches.get();
+    }
+
+    @Override
+    public String toString() {
+        return "SharedFeedLoader [owner=" + owner + ", sharedHits=" + sharedHits + ", leaseWaits=" + leaseWaits
+                + ", upstreamFetches=" + upstreamFetches + "]";
+    }
+}
@@ -0,0 +1,86 @@
+package main.java.com.meridian.utilities;
+
+import main.java.com.meridian.exception.FileReaderException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Coalesces concurrent loads of the same feed URL.
+ *
+ * The first caller for a URL runs the fetch and parse on its own thread. Callers arriving while it
+ * is in flight wait for it and receive the same result, or the same failure, instead of starting
+ * their own download.
+ */
+
+public class SingleFlightLoader<T> implements FeedCache.Loader<T> {
+    private final FeedCache.Loader<T> delegate;
+    private final ConcurrentMap<String, FutureTask<T>> inFlight = new ConcurrentHashMap<String, FutureTask<T>>();
+
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public SingleFlightLoader (FeedCache.Loader<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public T load(final String feedUrl) throws FileReaderException {
+        FutureTask<T> task = new FutureTask<T>(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return delegate.load(feedUrl);
+            }
+        });
+
+        FutureTask<T> running = inFlight.putIfAbsent(feedUrl, task);
+        if (running == null) {
+            executed.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                inFlight.remove(feedUrl, task);
+            }
+            running = task;
+        } else {
+            coalesced.incrementAndGet();
+        }
+
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileReaderException("Interrupted while waiting for " + feedUrl, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof FileReaderException) {
+                throw (FileReaderException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new FileReaderException(cause);
+        }
+    }
+
+    /**
+     * Number of loads that went to the delegate.
+     */
+    public long getExecutedCount () {
+        return executed.get();
+    }
+
+    /**
+     * Number of callers that shared a load already in flight.
+     */
+    public long getCoalescedCount () {
+        return coalesced.get();
+    }
+}
@@ -0,0 +1,377 @@
+package main.java.com.meridian.utilities;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/*
+ * One immutable reading of skill.properties. A reload builds a new instance and publishes it whole,
+ * so a request never sees half of an old configuration and half of a new one.
+ */
+
+public final class SkillConfiguration {
+    private static final Logger log = LoggerFactory.getLogger(SkillConfiguration.class);
+
+    private static final String NEWS_CITY_FEED_PREFIX = "news-city-feed.";
+
+    private final String source;
+    private final boolean propertyRead;
+    private final String skillName;
+    private final String newsFeedUrl;
+    private final String ratesFeedUrl;
+    private final String fatalError;
+    private final String welcomeMessage;
+    private final String speechHelp;
+    private final String goodBye;
+    private final String speechReprompt;
+    private final String speechSorry;
+    private final String skillId;
+    private final int newsCacheTtlSeconds;
+    private final int newsItemLimit;
+    private final int ratesCacheTtlSeconds;
+    private final String snapshotDirectory;
+    private final String newsDefaultCity;
+    private final Map<String, String> newsCityFeedUrls;
+    private final int newsFetchThreads;
+    private final int articleStoreMaxSnapshots;
+    private final int articleChunkWords;
+    private final int pageMaxCharacters;
+    private final int pageMaxSpeakingSeconds;
+    private final int speakingWordsPerMinute;
+    private final boolean primeOnInit;
+    private final String warmupEventField;
+    private final String warmupEventValue;
+    private final int warmupBudgetMillis;
+    private final Map<String, String> rateAliases;
+    private final int feedConnectTimeoutMillis;
+    private final int feedReadTimeoutMillis;
+    private final int feedMaxConnectionsPerHost;
+    private final int progressiveResponseThreads;
+    private final int progressiveResponseTimeoutMillis;
+    private final int latencyBudgetMillis;
+    private final boolean asOfWording;
+    private final int serverPort;
+    private final String serverSkillPath;
+    private final int serverMinThreads;
+    private final int serverMaxThreads;
+    private final int serverQueueCapacity;
+    private final int serverIdleTimeoutMillis;
+    private final String sharedSnapshotTable;
+    private final String sharedSnapshotRegion;
+    private final String sharedSnapshotEndpoint;
+    private final int sharedSnapshotLeaseSeconds;
+    private final int sharedSnapshotWaitMillis;
+
+    /**
+     * The configuration in the properties, with defaults for what they leave out.
+     *
+     * @param source where the properties came from, for logging
+     * @param propertyRead false when no properties could be read and everything is a default
+     */
+    public SkillConfiguration (Properties skillProperties, String source, boolean propertyRead) {
+        this.source = source;
+        this.propertyRead = propertyRead;
+        skillName = skillProperties.getProperty("skill", "");
+        newsFeedUrl = skillProperties.getProperty("news-rss-feed-url", "");
+        ratesFeedUrl = skillProperties.getProperty("rates-rss-feed-url", "");
+
+        fatalError = skillProperties.getProperty("speech-fatal-error", "");
+        welcomeMessage = skillProperties.getProperty("speech-welcome", "");
+        speechHelp = skillProperties.getProperty("speech-help", "");
+        goodBye = skillProperties.getProperty("speech-goodbye", "");
+        speechSorry = skillProperties.getProperty("speech-sorry", "");
+        speechReprompt = skillProperties.getProperty("speech-reprompt", "");
+
+        skillId = skillProperties.getProperty("skill-id", "");
+
+        newsCacheTtlSeconds = getIntProperty(skillProperties, "news-cache-ttl-seconds", 600);
+        newsItemLimit = getIntProperty(skillProperties, "news-item-limit", 20);
+        ratesCacheTtlSeconds = getIntProperty(skillProperties, "rates-cache-ttl-seconds", 300);
+        newsFetchThreads = getIntProperty(skillProperties, "news-fetch-threads", 4);
+        articleStoreMaxSnapshots = getIntProperty(skillProperties, "article-store-max-snapshots", 32);
+        articleChunkWords = getIntProperty(skillProperties, "article-chunk-words", 100);
+        pageMaxCharacters = getIntProperty(skillProperties, "page-max-characters", 6000);
+        pageMaxSpeakingSeconds = getIntProperty(skillProperties, "page-max-speaking-seconds", 45);
+        speakingWordsPerMinute = getIntProperty(skillProperties, "speaking-words-per-minute", 150);
+        primeOnInit = getBooleanProperty(skillProperties, "prime-on-init", false);
+        warmupEventField = skillProperties.getProperty("warmup-event-field", "source").trim();
+        warmupEventValue = skillProperties.getProperty("warmup-event-value", "").trim();
+        warmupBudgetMillis = getIntProperty(skillProperties, "warmup-budget-ms", 20000);
+
+        String directory = skillProperties.getProperty("snapshot-directory");
+        snapshotDirectory = directory != null && !directory.trim().isEmpty() ? directory.trim()
+                : new File(System.getProperty("java.io.tmpdir"), "meridian-snapshots").getPath();
+
+        newsDefaultCity = skillProperties.getProperty("news-default-city", "new-york");
+        Map<String, String> cityFeedUrls = new LinkedHashMap<String, String>();
+        for (String key : new TreeSet<String>(skillProperties.stringPropertyNames())) {
+            if (key.startsWith(NEWS_CITY_FEED_PREFIX)) {
+                cityFeedUrls.put(key.substring(NEWS_CITY_FEED_PREFIX.length()), skillProperties.getProperty(key));
+            }
+        }
+        if (!cityFeedUrls.containsKey(newsDefaultCity)) {
+            cityFeedUrls.put(newsDefaultCity, newsFeedUrl);
+        }
+        newsCityFeedUrls = Collections.unmodifiableMap(cityFeedUrls);
+
+        Map<String, String> aliases = new LinkedHashMap<String, String>();
+        for (String alias : skillProperties.getProperty("rate-aliases", "").split(",")) {
+            int colon = alias.indexOf(':');
+            if (colon > 0) {
+                aliases.put(alias.substring(0, colon).trim(), alias.substring(colon + 1).trim());
+            }
+        }
+        rateAliases = Collections.unmodifiableMap(aliases);
+
+        feedConnectTimeoutMillis = getIntProperty(skillProperties, "feed-connect-timeout-ms", 2000);
+        feedReadTimeoutMillis = getIntProperty(skillProperties, "feed-read-timeout-ms", 4000);
+        feedMaxConnectionsPerHost = getIntProperty(skillProperties, "feed-max-connections-per-host", 5);
+        progressiveResponseThreads = getIntProperty(skillProperties, "progressive-response-threads", 2);
+        progressiveResponseTimeoutMillis = getIntProperty(skillProperties, "progressive-response-timeout-ms", 1000);
+        latencyBudgetMillis = getIntProperty(skillProperties, "latency-budget-ms", 3000);
+        asOfWording = getBooleanProperty(skillProperties, "as-of-wording", true);
+
+        serverPort = getIntProperty(skillProperties, "server-port", 8888);
+        serverSkillPath = skillProperties.getProperty("server-skill-path", "/news-wizard").trim();
+        serverMinThreads = getIntProperty(skillProperties, "server-min-threads", 8);
+        serverMaxThreads = getIntProperty(skillProperties, "server-max-threads", 200);
+        serverQueueCapacity = getIntProperty(skillProperties, "server-queue-capacity", 256);
+        serverIdleTimeoutMillis = getIntProperty(skillProperties, "server-idle-timeout-ms", 60000);
+
+        sharedSnapshotTable = skillProperties.getProperty("shared-snapshot-table", "").trim();
+        sharedSnapshotRegion = skillProperties.getProperty("shared-snapshot-region", "us-east-1").trim();
+        sharedSnapshotEndpoint = skillProperties.getProperty("shared-snapshot-endpoint", "").trim();
+        sharedSnapshotLeaseSeconds = getIntProperty(skillProperties, "shared-snapshot-lease-seconds", 30);
+        sharedSnapshotWaitMillis = getIntProperty(skillProperties, "shared-snapshot-wait-ms", 1000);
+    }
+
+    private static int getIntProperty(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            log.error("Property " + key + " is not a number, using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private static boolean getBooleanProperty(Properties properties, String key, boolean defaultValue) {
+        return Boolean.parseBoolean(properties.getProperty(key, String.valueOf(defaultValue)).trim());
+    }
+
+    /**
+     * Where the properties were read from: a file path, a classpath resource or "defaults".
+     */
+    public String getSource () {
+        return source;
+    }
+
+    public boolean isPropertyRead () {
+        return propertyRead;
+    }
+
+    public String getSkillName () {
+        return skillName;
+    }
+
+    public String getNewsFeedUrl () {
+        return newsFeedUrl;
+    }
+
+    public String getRatesFeedUrl () {
+        return ratesFeedUrl;
+    }
+
+    public String getFatalError () {
+        return fatalError;
+    }
+
+    public String getWelcomeMessage () {
+        return welcomeMessage;
+    }
+
+    public String getSpeechHelp () {
+        return speechHelp;
+    }
+
+    public String getGoodBye () {
+        return goodBye;
+    }
+
+    public String getSpeechReprompt () {
+        return speechReprompt;
+    }
+
+    public String getSpeechSorry () {
+        return speechSorry;
+    }
+
+    public String getSkillId () {
+        return skillId;
+    }
+
+    public int getNewsCacheTtlSeconds () {
+        return newsCacheTtlSeconds;
+    }
+
+    public int getNewsItemLimit () {
+        return newsItemLimit;
+    }
+
+    public int getRatesCacheTtlSeconds () {
+        return ratesCacheTtlSeconds;
+    }
+
+    public String getSnapshotDirectory () {
+        return snapshotDirectory;
+    }
+
+    public String getNewsDefaultCity () {
+        return newsDefaultCity;
+    }
+
+    public Map<String, String> getNewsCityFeedUrls () {
+        return newsCityFeedUrls;
+    }
+
+    public int getNewsFetchThreads () {
+        return newsFetchThreads;
+    }
+
+    public int getArticleStoreMaxSnapshots () {
+        return articleStoreMaxSnapshots;
+    }
+
+    public int getArticleChunkWords () {
+        return articleChunkWords;
+    }
+
+    public int getPageMaxCharacters () {
+        return pageMaxCharacters;
+    }
+
+    public int getPageMaxSpeakingSeconds () {
+        return pageMaxSpeakingSeconds;
+    }
+
+    public int getSpeakingWordsPerMinute () {
+        return speakingWordsPerMinute;
+    }
+
+    public boolean isPrimeOnInit () {
+        return primeOnInit;
+    }
+
+    public String getWarmupEventField () {
+        return warmupEventField;
+    }
+
+    /**
+     * The value of the warm-up event field that marks a warm-up; empty when warm-ups are off.
+     */
+    public String getWarmupEventValue () {
+        return warmupEventValue;
+    }
+
+    public int getWarmupBudgetMillis () {
+        return warmupBudgetMillis;
+    }
+
+    public Map<String, String> getRateAliases () {
+        return rateAliases;
+    }
+
+    public int getFeedConnectTimeoutMillis () {
+        return feedConnectTimeoutMillis;
+    }
+
+    public int getFeedReadTimeoutMillis () {
+        return feedReadTimeoutMillis;
+    }
+
+    public int getFeedMaxConnectionsPerHost () {
+        return feedMaxConnectionsPerHost;
+    }
+
+    public int getProgressiveResponseThreads () {
+        return progressiveResponseThreads;
+    }
+
+    public int getProgressiveResponseTimeoutMillis () {
+        return progressiveResponseTimeoutMillis;
+    }
+
+    public int getLatencyBudgetMillis () {
+        return latencyBudgetMillis;
+    }
+
+    public boolean isAsOfWording () {
+        return asOfWording;
+    }
+
+    public int getServerPort () {
+        return serverPort;
+    }
+
+    public String getServerSkillPath () {
+        return serverSkillPath;
+    }
+
+    public int getServerMinThreads () {
+        return serverMinThreads;
+    }
+
+    public int getServerMaxThreads () {
+        return serverMaxThreads;
+    }
+
+    /**
+     * Requests that may wait for a free server thread; past it new requests are turned away.
+     */
+    public int getServerQueueCapacity () {
+        return serverQueueCapacity;
+    }
+
+    public int getServerIdleTimeoutMillis () {
+        return serverIdleTimeoutMillis;
+    }
+
+    /**
+     * The DynamoDB table of feeds shared by all containers; empty when each container fetches its own.
+     */
+    public String getSharedSnapshotTable () {
+        return sharedSnapshotTable;
+    }
+
+    public String getSharedSnapshotRegion () {
+        return sharedSnapshotRegion;
+    }
+
+    /**
+     * A DynamoDB endpoint to use instead of the region's, such as DynamoDB Local; empty for the region's.
+     */
+    public String getSharedSnapshotEndpoint () {
+        return sharedSnapshotEndpoint;
+    }
+
+    public int getSharedSnapshotLeaseSeconds () {
+        return sharedSnapshotLeaseSeconds;
+    }
+
+    /**
+     * How long a container waits for another container's first copy of a feed before fetching it
+     * itself.
+     */
+    public int getSharedSnapshotWaitMillis () {
+        return sharedSnapshotWaitMillis;
+    }
+}
@@ -0,0 +1,238 @@
+package main.java.com.meridian.utilities;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/*
+ * Last known good feeds on local disk.
+ *
+ * Every successfully parsed feed is written to a small binary file per feed URL, replacing the
+ * previous one atomically. At startup the file is memory mapped and decoded, so a cold container
+ * can answer from it before the first download completes, and an upstream outage still has
+ * something to serve.
+ *
+ * File layout: magic, format version, feed URL, fetch time, then the codec's payload. Strings are
+ * written as a byte length (-1 for null) followed by UTF-8 bytes.
+ */
+
+public class SnapshotFileStore {
+    private static final Logger log = LoggerFactory.getLogger(SnapshotFileStore.class);
+
+    private static final int MAGIC = 0x4D534E50;
+    private static final byte FORMAT_VERSION = 1;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Writes and reads the payload of one kind of feed.
+     */
+    public interface Codec<F> {
+        void write(F feed, DataOutputStream out) throws IOException;
+
+        F read(ByteBuffer in);
+    }
+
+    public static final Codec<NewsFeed> NEWS_CODEC = new Codec<NewsFeed>() {
+        @Override
+        public void write(NewsFeed feed, DataOutputStream out) throws IOException {
+            writeString(out, feed.getTitle());
+            writeString(out, feed.getLink());
+            writeString(out, feed.getDescription());
+            writeString(out, feed.getLanguage());
+            writeString(out, feed.getDocs());
+            out.writeInt(feed.getMessages().size());
+            for (NewsFeedMessage message : feed.getMessages()) {
+                writeString(out, message.getTitle());
+                writeString(out, message.getDescription());
+                writeString(out, message.getEncodedContent());
+            }
+        }
+
+        @Override
+        public NewsFeed read(ByteBuffer in) {
+            NewsFeed feed = new NewsFeed(readString(in), readString(in), readString(in), readString(in), readString(in));
+            int count = in.getInt();
+            for (int i = 0; i < count; i++) {
+                NewsFeedMessage message = new NewsFeedMessage();
+                message.setTitle(readString(in));
+                message.setDescription(readString(in));
+                message.setEncodedContent(readString(in));
+                feed.getMessages().add(message);
+            }
+            return feed;
+        }
+    };
+
+    public static final Codec<RatesFeed> RATES_CODEC = new Codec<RatesFeed>() {
+        @Override
+        public void write(RatesFeed feed, DataOutputStream out) throws IOException {
+            out.writeInt(feed.getMessages().size());
+            for (RatesFeedMessage message : feed.getMessages()) {
+                writeString(out, message.getSymbol());
+                writeString(out, message.getName());
+                writeString(out, message.getQuoteDate());
+                writeString(out, message.getValue());
+            }
+        }
+
+        @Override
+        public RatesFeed read(ByteBuffer in) {
+            RatesFeed feed = new RatesFeed();
+            int count = in.getInt();
+            for (int i = 0; i < count; i++) {
+                RatesFeedMessage message = new RatesFeedMessage();
+                message.setSymbol(readString(in));
+                message.setName(readString(in));
+                message.setQuoteDate(readString(in));
+                message.setValue(readString(in));
+                feed.getMessages().add(message);
+            }
+            return feed;
+        }
+    };
+
+    private final File directory;
+
+    // The feed object last written per URL; a 304 hands back the same object, which needs no rewrite
+    private final ConcurrentMap<String, Object> lastSaved = new ConcurrentHashMap<String, Object>();
+
+    public SnapshotFileStore (File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Writes the feed for the URL, replacing the previous file. Failures are logged, not thrown:
+     * the snapshot only ever helps.
+     */
+    public <F> void save(String feedUrl, F feed, long fetchedAt, Codec<F> codec) {
+        if (lastSaved.get(feedUrl) == feed) {
+            return;
+        }
+        File target = getFile(feedUrl);
+        File temp = new File(directory, target.getName() + ".tmp");
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Cannot create " + directory);
+            }
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            try {
+                writeSnapshot(out, feedUrl, feed, fetchedAt, codec);
+            } finally {
+                out.close();
+            }
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            lastSaved.put(feedUrl, feed);
+        } catch (IOException e) {
+            log.warn("Could not write the snapshot of " + feedUrl + " to " + target, e);
+        }
+    }
+
+    /**
+     * Reads the stored feed for the URL, or returns null when there is none or it cannot be read.
+     */
+    public <F> Stored<F> load(String feedUrl, Codec<F> codec) {
+        File file = getFile(feedUrl);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            try {
+                Stored<F> stored = readSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), feedUrl, codec);
+                if (stored == null) {
+                    log.warn("Ignoring snapshot " + file + ", it is not a snapshot of " + feedUrl);
+                }
+                return stored;
+            } finally {
+                channel.close();
+            }
+        } catch (IOException | BufferUnderflowException e) {
+            log.warn("Could not read the snapshot " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes a snapshot in the file layout, for stores that keep the same bytes somewhere else.
+     */
+    static <F> void writeSnapshot(DataOutputStream out, String feedUrl, F feed, long fetchedAt, Codec<F> codec)
+            throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+        writeString(out, feedUrl);
+        out.writeLong(fetchedAt);
+        codec.write(feed, out);
+    }
+
+    /**
+     * Reads a snapshot written by {@link #writeSnapshot}, or returns null when it is in another
+     * format or of another feed. A truncated snapshot throws a BufferUnderflowException.
+     */
+    static <F> Stored<F> readSnapshot(ByteBuffer in, String feedUrl, Codec<F> codec) {
+        if (in.getInt() != MAGIC || in.get() != FORMAT_VERSION || !feedUrl.equals(readString(in))) {
+            return null;
+        }
+        long fetchedAt = in.getLong();
+        return new Stored<F>(codec.read(in), fetchedAt);
+    }
+
+    private File getFile(String feedUrl) {
+        return new File(directory, FeedSnapshot.computeVersion(Collections.singletonList(feedUrl)) + ".snap");
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /*
+     * A feed read back from disk with the time it was originally downloaded.
+     */
+    public static class Stored<F> {
+        private final F feed;
+        private final long fetchedAt;
+
+        public Stored (F feed, long fetchedAt) {
+            this.feed = feed;
+            this.fetchedAt = fetchedAt;
+        }
+
+        public F getFeed () {
+            return feed;
+        }
+
+        public long getFetchedAt () {
+            return fetchedAt;
+        }
+    }
+}
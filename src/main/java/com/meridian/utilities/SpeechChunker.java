@@ -0,0 +1,103 @@
+package main.java.com.meridian.utilities;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Splits long text into speech sized segments of at most a given number of words.
+ *
+ * One pass over the characters, with no regex and no copies but the segments themselves. A
+ * segment ends at the last sentence end that fits, or at the last word boundary when the sentence
+ * is longer than a segment. The text is the plain text SsmlSanitizer makes of an article, so a
+ * '<' is a character like any other; escaping for SSML happens after chunking.
+ */
+
+public class SpeechChunker {
+    private final int maxWords;
+
+    public SpeechChunker (int maxWords) {
+        if (maxWords < 1) {
+            throw new IllegalArgumentException("maxWords must be at least 1, was " + maxWords);
+        }
+        this.maxWords = maxWords;
+    }
+
+    /**
+     * The segments of the text, trimmed, in order. Empty for null or blank text.
+     */
+    public List<String> chunk(String text) {
+        List<String> segments = new ArrayList<String>();
+        if (text == null) {
+            return segments;
+        }
+
+        int length = text.length();
+        int start = 0;
+        int words = 0;
+        int lastSentenceEnd = -1;
+        int lastWordEnd = -1;
+        boolean inWord = false;
+
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                if (inWord) {
+                    inWord = false;
+                    lastWordEnd = i;
+                    if (isSentenceEnd(text.charAt(i - 1))) {
+                        lastSentenceEnd = i;
+                    }
+                }
+                continue;
+            }
+            if (!inWord) {
+                inWord = true;
+                words++;
+                if (words > maxWords) {
+                    // This word starts a new segment; cut at the best boundary before it
+                    int cut = lastSentenceEnd > start ? lastSentenceEnd : lastWordEnd;
+                    add(segments, text, start, cut);
+                    start = cut;
+                    words = countWords(text, start, i) + 1;
+                    lastSentenceEnd = -1;
+                }
+            }
+        }
+        add(segments, text, start, length);
+        return segments;
+    }
+
+    private static boolean isSentenceEnd(char c) {
+        return c == '.' || c == '!' || c == '?';
+    }
+
+    /*
+     * Words between the cut and the current word, carried over into the new segment.
+     */
+    private static int countWords(String text, int from, int to) {
+        int words = 0;
+        boolean inWord = false;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                inWord = false;
+            } else if (!inWord) {
+                inWord = true;
+                words++;
+            }
+        }
+        return words;
+    }
+
+    private static void add(List<String> segments, String text, int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (start < end) {
+            segments.add(text.substring(start, end));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package main.java.com.meridian.utilities;
+
+/*
+ * One ready-to-send page of speech: the complete SSML document and the matching card text.
+ */
+
+public class SpeechPage {
+    private final String ssml;
+    private final String card;
+    private final boolean last;
+
+    public SpeechPage (String ssml, String card, boolean last) {
+        this.ssml = ssml;
+        this.card = card;
+        this.last = last;
+    }
+
+    /**
+     * The page wrapped in a speak element.
+     */
+    public String getSsml () {
+        return ssml;
+    }
+
+    /**
+     * The same page with the plain text spoken before it.
+     */
+    public SpeechPage withPrefix(String text) {
+        String body = ssml.startsWith("<speak>") ? ssml.substring("<speak>".length()) : ssml + "</speak>";
+        StringBuilder prefixed = SsmlSanitizer.escape(text, new StringBuilder("<speak>")).append(body);
+        return new SpeechPage(prefixed.toString(), text + card, last);
+    }
+
+    public String getCard () {
+        return card;
+    }
+
+    /**
+     * True when no page follows this one.
+     */
+    public boolean isLast () {
+        return last;
+    }
+}
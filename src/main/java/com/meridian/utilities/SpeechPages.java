@@ -0,0 +1,151 @@
+package main.java.com.meridian.utilities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * Speech pages rendered once per feed snapshot, so a turn only has to look up page N.
+ *
+ * Pages are packed: each holds as many whole items as fit in the page budget, so short items such
+ * as rates share a turn and long ones never make an oversized response. The first item of every
+ * page is recorded, so an item can be found on its page. Items may be grouped into articles, such
+ * as the segments of one long news article; the separator is only spoken where a new article starts.
+ */
+
+public class SpeechPages {
+    private final List<SpeechPage> pages;
+    private final int[] firstItems;
+    private final List<String> items;
+    private final int[] articles;
+    private final String separator;
+    private final String morePrompt;
+
+    private SpeechPages(List<SpeechPage> pages, int[] firstItems, List<String> items, int[] articles, String separator,
+                        String morePrompt) {
+        this.pages = Collections.unmodifiableList(pages);
+        this.firstItems = firstItems;
+        this.items = items;
+        this.articles = articles;
+        this.separator = separator;
+        this.morePrompt = morePrompt;
+    }
+
+    /**
+     * Packs the items into pages within the budget. Items on the same page are separated by the
+     * separator, and every page but the last ends with the more prompt. Items are plain text;
+     * they are escaped for the SSML and used as is for the card. An item too big for the budget
+     * on its own gets a page to itself.
+     */
+    public static SpeechPages render(List<String> items, PageBudget budget, String separator, String morePrompt) {
+        return render(items, null, budget, separator, morePrompt);
+    }
+
+    /**
+     * Like {@link #render(List, PageBudget, String, String)}, for items grouped into articles:
+     * articles[i] is the article of item i, and the separator only goes between items of
+     * different articles. A null array makes every item an article of its own.
+     */
+    public static SpeechPages render(List<String> items, int[] articles, PageBudget budget, String separator,
+                                     String morePrompt) {
+        if (articles != null && articles.length != items.size()) {
+            throw new IllegalArgumentException(items.size() + " items but " + articles.length + " article indexes");
+        }
+        List<SpeechPage> pages = new ArrayList<SpeechPage>();
+        int[] firstItems = new int[items.size()];
+        int separatorWords = PageBudget.countWords(separator);
+        int promptWords = PageBudget.countWords(morePrompt);
+
+        int start = 0;
+        while (start < items.size()) {
+            // Every page is sized as if it ended with the more prompt
+            int characters = "<speak>".length() + morePrompt.length() + "</speak>".length();
+            int words = promptWords;
+            int end = start;
+            while (end < items.size()) {
+                int itemCharacters = "<p>".length() + SsmlSanitizer.escapedLength(items.get(end)) + "</p> ".length();
+                int itemWords = PageBudget.countWords(items.get(end));
+                if (end > start) {
+                    if (startsArticle(articles, end)) {
+                        itemCharacters += 1 + separator.length();
+                        itemWords += separatorWords;
+                    }
+                    if (!budget.fits(characters + itemCharacters, words + itemWords)) {
+                        break;
+                    }
+                }
+                characters += itemCharacters;
+                words += itemWords;
+                end++;
+            }
+            firstItems[pages.size()] = start;
+            pages.add(newPage(items, articles, start, end, end == items.size(), separator, morePrompt));
+            start = end;
+        }
+        return new SpeechPages(pages, Arrays.copyOf(firstItems, pages.size()), items, articles, separator, morePrompt);
+    }
+
+    private static boolean startsArticle(int[] articles, int item) {
+        return articles == null || item == 0 || articles[item] != articles[item - 1];
+    }
+
+    private static SpeechPage newPage(List<String> items, int[] articles, int start, int end, boolean last,
+                                      String separator, String morePrompt) {
+        StringBuilder ssml = new StringBuilder();
+        StringBuilder card = new StringBuilder();
+        ssml.append("<speak>");
+        for (int i = start; i < end; i++) {
+            SsmlSanitizer.escape(items.get(i), ssml.append("<p>"));
+            card.append(items.get(i));
+            if (i < end - 1 && startsArticle(articles, i + 1)) {
+                ssml.append(' ').append(separator);
+                card.append(' ').append(separator);
+            }
+            ssml.append("</p> ");
+            card.append("\n");
+        }
+        if (!last) {
+            ssml.append(morePrompt);
+            card.append(morePrompt);
+        }
+        ssml.append("</speak>");
+        return new SpeechPage(ssml.toString(), card.toString(), last);
+    }
+
+    public int size () {
+        return pages.size();
+    }
+
+    public boolean isEmpty () {
+        return pages.isEmpty();
+    }
+
+    /**
+     * The page at the index, or null past the last page.
+     */
+    public SpeechPage get (int index) {
+        return index >= 0 && index < pages.size() ? pages.get(index) : null;
+    }
+
+    /**
+     * The index of the page holding the item.
+     */
+    public int getPageOf (int item) {
+        int found = Arrays.binarySearch(firstItems, item);
+        return found >= 0 ? found : -found - 2;
+    }
+
+    /**
+     * The page holding the item, read from the item on: the page itself when the item starts it,
+     * otherwise the rest of the page rendered for this one request.
+     */
+    public SpeechPage getFrom (int item) {
+        int page = getPageOf(item);
+        if (firstItems[page] == item) {
+            return pages.get(page);
+        }
+        int end = page + 1 < firstItems.length ? firstItems[page + 1] : items.size();
+        return newPage(items, articles, item, end, page == pages.size() - 1, separator, morePrompt);
+    }
+}
@@ -0,0 +1,269 @@
+package main.java.com.meridian.utilities;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Turns the HTML of a feed article into plain text that is safe to speak.
+ *
+ * One pass over the characters into a buffer reused per thread: tags and comments are dropped
+ * (script and style with their content), block level tags become sentence breaks, entities are decoded and
+ * runs of whitespace collapse to one space. The result is plain text, fit for a card as is; when
+ * it goes into SSML, escape() takes care of the characters SSML reserves.
+ */
+
+public class SsmlSanitizer {
+    private static final Map<String, Character> ENTITIES = new HashMap<String, Character>();
+
+    static {
+        ENTITIES.put("amp", '&');
+        ENTITIES.put("lt", '<');
+        ENTITIES.put("gt", '>');
+        ENTITIES.put("quot", '"');
+        ENTITIES.put("apos", '\'');
+        ENTITIES.put("nbsp", ' ');
+        ENTITIES.put("lsquo", '\'');
+        ENTITIES.put("rsquo", '\'');
+        ENTITIES.put("ldquo", '"');
+        ENTITIES.put("rdquo", '"');
+        ENTITIES.put("ndash", '-');
+        ENTITIES.put("mdash", '-');
+        ENTITIES.put("hellip", '.');
+        ENTITIES.put("copy", '\u00A9');
+        ENTITIES.put("reg", '\u00AE');
+        ENTITIES.put("trade", '\u2122');
+        ENTITIES.put("euro", '\u20AC');
+        ENTITIES.put("pound", '\u00A3');
+        ENTITIES.put("cent", '\u00A2');
+        ENTITIES.put("deg", '\u00B0');
+    }
+
+    // Longest entity name looked up; anything longer after '&' is plain text
+    private static final int MAX_ENTITY_LENGTH = 10;
+
+    private static final ThreadLocal<StringBuilder> buffers = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(4096);
+        }
+    };
+
+    private SsmlSanitizer () {
+    }
+
+    /**
+     * The text of the HTML, without markup and with entities decoded. Empty for null.
+     */
+    public static String sanitize(String html) {
+        if (html == null) {
+            return "";
+        }
+        StringBuilder out = buffers.get();
+        out.setLength(0);
+
+        int length = html.length();
+        boolean pendingSpace = false;
+        boolean pendingBreak = false;
+        int i = 0;
+        while (i < length) {
+            char c = html.charAt(i);
+            if (c == '<' && i + 1 < length && html.startsWith("!--", i + 1)) {
+                int close = html.indexOf("-->", i + 4);
+                i = close < 0 ? length : close + 3;
+                continue;
+            }
+            if (c == '<' && isTagStart(html, i + 1)) {
+                int close = html.indexOf('>', i + 1);
+                if (close < 0) {
+                    close = length - 1;
+                }
+                int nameStart = html.charAt(i + 1) == '/' ? i + 2 : i + 1;
+                if (isTag(html, nameStart, close, "script") || isTag(html, nameStart, close, "style")) {
+                    if (nameStart == i + 1) {
+                        close = skipElement(html, nameStart, close);
+                    }
+                } else if (isBlockTag(html, nameStart, close)) {
+                    pendingBreak = true;
+                }
+                // Inline tags such as <b> or <a> sit inside words and sentences, and leave no gap
+                i = close + 1;
+                continue;
+            }
+
+            if (c == '&') {
+                int semicolon = html.indexOf(';', i + 1);
+                if (semicolon > i + 1 && semicolon - i - 1 <= MAX_ENTITY_LENGTH) {
+                    char decoded = decode(html, i + 1, semicolon);
+                    if (decoded != 0) {
+                        c = decoded;
+                        i = semicolon;
+                    }
+                }
+            }
+
+            if (Character.isWhitespace(c) || c == '\u00A0') {
+                pendingSpace = true;
+                i++;
+                continue;
+            }
+            i = append(out, c, pendingSpace, pendingBreak, i);
+            pendingSpace = pendingBreak = false;
+        }
+        return out.toString();
+    }
+
+    /**
+     * Appends the text to the SSML, escaping the characters SSML reserves.
+     */
+    public static StringBuilder escape(String text, StringBuilder ssml) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&':
+                    ssml.append("&amp;");
+                    break;
+                case '<':
+                    ssml.append("&lt;");
+                    break;
+                case '>':
+                    ssml.append("&gt;");
+                    break;
+                case '"':
+                    ssml.append("&quot;");
+                    break;
+                case '\'':
+                    ssml.append("&apos;");
+                    break;
+                default:
+                    ssml.append(c);
+            }
+        }
+        return ssml;
+    }
+
+    /**
+     * The length of the text once escaped, without escaping it.
+     */
+    public static int escapedLength(String text) {
+        int length = text.length();
+        for (int i = 0; i < text.length(); i++) {
+            switch (text.charAt(i)) {
+                case '&':
+                    length += "&amp;".length() - 1;
+                    break;
+                case '<':
+                case '>':
+                    length += "&lt;".length() - 1;
+                    break;
+                case '"':
+                case '\'':
+                    length += "&quot;".length() - 1;
+                    break;
+                default:
+            }
+        }
+        return length;
+    }
+
+    /*
+     * Appends a visible character after any pending separator and returns the next index.
+     */
+    private static int append(StringBuilder out, char c, boolean pendingSpace, boolean pendingBreak, int i) {
+        if (out.length() > 0) {
+            if (pendingBreak) {
+                char last = out.charAt(out.length() - 1);
+                if (last != '.' && last != '!' && last != '?' && last != ':' && last != ';' && last != ',') {
+                    out.append('.');
+                }
+                out.append(' ');
+            } else if (pendingSpace) {
+                out.append(' ');
+            }
+        }
+        out.append(c);
+        return i + 1;
+    }
+
+    /*
+     * True when the '<' before the index opens a tag rather than being text, as in "a < b".
+     */
+    private static boolean isTagStart(String html, int index) {
+        if (index >= html.length()) {
+            return false;
+        }
+        char c = html.charAt(index);
+        if (c == '/' || c == '!') {
+            return index + 1 < html.length() && Character.isLetter(html.charAt(index + 1));
+        }
+        return Character.isLetter(c);
+    }
+
+    private static boolean isTag(String html, int nameStart, int close, String name) {
+        int nameEnd = nameStart + name.length();
+        if (nameEnd > close || !html.regionMatches(true, nameStart, name, 0, name.length())) {
+            return false;
+        }
+        return nameEnd == close || !Character.isLetterOrDigit(html.charAt(nameEnd));
+    }
+
+    private static boolean isBlockTag(String html, int nameStart, int close) {
+        return isTag(html, nameStart, close, "p") || isTag(html, nameStart, close, "br")
+                || isTag(html, nameStart, close, "div") || isTag(html, nameStart, close, "li")
+                || isTag(html, nameStart, close, "tr") || isTag(html, nameStart, close, "blockquote")
+                || (close - nameStart >= 2 && (html.charAt(nameStart) == 'h' || html.charAt(nameStart) == 'H')
+                    && html.charAt(nameStart + 1) >= '1' && html.charAt(nameStart + 1) <= '6');
+    }
+
+    /*
+     * Index of the '>' that ends the element opened by the tag at nameStart, or the end of the text.
+     */
+    private static int skipElement(String html, int nameStart, int close) {
+        int nameEnd = nameStart;
+        while (nameEnd < close && Character.isLetter(html.charAt(nameEnd))) {
+            nameEnd++;
+        }
+        String endTag = "</" + html.substring(nameStart, nameEnd);
+        for (int i = html.indexOf('<', close); i >= 0; i = html.indexOf('<', i + 1)) {
+            if (html.regionMatches(true, i, endTag, 0, endTag.length())) {
+                int end = html.indexOf('>', i);
+                return end < 0 ? html.length() - 1 : end;
+            }
+        }
+        return html.length() - 1;
+    }
+
+    /*
+     * The character of the entity between '&' and ';', or 0 when it is not one we know.
+     */
+    private static char decode(String html, int start, int end) {
+        if (html.charAt(start) == '#') {
+            try {
+                boolean hex = end - start > 1 && (html.charAt(start + 1) == 'x' || html.charAt(start + 1) == 'X');
+                int codePoint = hex ? Integer.parseInt(html.substring(start + 2, end), 16)
+                        : Integer.parseInt(html.substring(start + 1, end));
+                // Characters outside the basic plane, mostly emoji, are not worth speaking
+                return isSpeakable(codePoint) ? (char) codePoint : ' ';
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        Character decoded = ENTITIES.get(html.substring(start, end));
+        return decoded == null ? 0 : decoded;
+    }
+
+    /*
+     * Whether the code point is a basic plane character XML 1.0 allows: no control characters
+     * other than tab, line feed and carriage return, no lone surrogates and no non-characters.
+     */
+    private static boolean isSpeakable(int codePoint) {
+        if (codePoint <= 0 || codePoint > Character.MAX_VALUE) {
+            return false;
+        }
+        if (Character.isISOControl(codePoint)) {
+            return codePoint == '\t' || codePoint == '\n' || codePoint == '\r';
+        }
+        return !Character.isSurrogate((char) codePoint)
+                && !(codePoint >= 0xFDD0 && codePoint <= 0xFDEF)
+                && codePoint != 0xFFFE && codePoint != 0xFFFF;
+    }
+}
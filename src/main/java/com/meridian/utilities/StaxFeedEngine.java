@@ -0,0 +1,216 @@
+package main.java.com.meridian.utilities;
+
+import main.java.com.meridian.exception.FileReaderException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/*
+ * Streaming feed parser shared by the news and rates feeds.
+ *
+ * Runs on the cursor (XMLStreamReader) API, so no event object is allocated per XML node. The text
+ * of a field is coalesced across CHARACTERS, CDATA and entity events into one reused buffer, so
+ * CDATA sections and entity-split text come through whole.
+ */
+
+public class StaxFeedEngine {
+
+    /*
+     * Looked up once: XMLInputFactory.newInstance() runs the service loader on every call. Once
+     * configured, the JDK and Woodstox factories are safe to create readers from concurrently.
+     */
+    private static final XMLInputFactory inputFactory = createInputFactory();
+
+    private StaxFeedEngine() {
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return factory;
+    }
+
+    /**
+     * Parses the whole document into a feed holding every item.
+     */
+    public static <F, I> F parse(InputStream in, FeedMapping<F, I> mapping) throws FileReaderException {
+        return parse(in, mapping, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Parses the document into a feed holding at most itemLimit items. Reading stops at the end of
+     * the last item kept, and when the limit is reached the stream is closed unread, so the rest
+     * of a downloading feed is abandoned rather than drained.
+     */
+    public static <F, I> F parse(InputStream in, FeedMapping<F, I> mapping, int itemLimit) throws FileReaderException {
+        Cursor<F, I> cursor = open(in, mapping);
+        int count = 0;
+        try {
+            I item;
+            while (count < itemLimit && (item = cursor.nextItem()) != null) {
+                mapping.addItem(cursor.getFeed(), item);
+                count++;
+            }
+            return cursor.getFeed();
+        } finally {
+            cursor.close();
+            if (count >= itemLimit) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    // the connection is dropped either way
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens a cursor that reads one item at a time. Closing the cursor does not close the stream.
+     */
+    public static <F, I> Cursor<F, I> open(InputStream in, FeedMapping<F, I> mapping) throws FileReaderException {
+        try {
+            return new Cursor<F, I>(inputFactory.createXMLStreamReader(in), mapping);
+        } catch (XMLStreamException e) {
+            throw new FileReaderException(e.toString());
+        }
+    }
+
+    /*
+     * Pull style reader over the items of one feed document.
+     */
+    public static class Cursor<F, I> implements Closeable {
+        private final XMLStreamReader reader;
+        private final FeedMapping<F, I> mapping;
+        private final String itemElement;
+        private final String[] header;
+        private final String[] fields;
+        private final StringBuilder text = new StringBuilder(256);
+        private F feed;
+        private boolean finished;
+
+        Cursor (XMLStreamReader reader, FeedMapping<F, I> mapping) {
+            this.reader = reader;
+            this.mapping = mapping;
+            this.itemElement = mapping.getItemElement();
+            this.header = new String[mapping.getFieldCount()];
+            this.fields = new String[mapping.getFieldCount()];
+            Arrays.fill(header, "");
+        }
+
+        /**
+         * The feed built from the header fields. Available once the first item has been read, or
+         * once the document has been read to the end.
+         */
+        public F getFeed () {
+            if (feed == null) {
+                feed = mapping.newFeed(header);
+            }
+            return feed;
+        }
+
+        /**
+         * Reads up to the end of the next item and returns it, or null at the end of the document.
+         */
+        public I nextItem() throws FileReaderException {
+            if (finished) {
+                return null;
+            }
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+                    String localName = reader.getLocalName();
+                    if (itemElement.equals(localName)) {
+                        getFeed();
+                        return readItem();
+                    }
+                    int field = mapping.getField(localName);
+                    if (field >= 0 && header[field].isEmpty()) {
+                        // The first value wins, so an <image><title> does not replace the channel title
+                        header[field] = readText();
+                    }
+                }
+                finished = true;
+                return null;
+            } catch (XMLStreamException e) {
+                throw new FileReaderException(e.toString());
+            }
+        }
+
+        /*
+         * Collects the fields of the direct children of the current item element.
+         */
+        private I readItem() throws XMLStreamException {
+            Arrays.fill(fields, "");
+            int depth = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    int field = depth == 0 ? mapping.getField(reader.getLocalName()) : -1;
+                    if (field >= 0) {
+                        fields[field] = readText();
+                    } else {
+                        depth++;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (depth == 0) {
+                        break;
+                    }
+                    depth--;
+                }
+            }
+            return mapping.newItem(fields);
+        }
+
+        /*
+         * Reads all text up to the end tag of the current element into the shared buffer.
+         */
+        private String readText() throws XMLStreamException {
+            text.setLength(0);
+            int depth = 0;
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        break;
+                    case XMLStreamConstants.ENTITY_REFERENCE:
+                        text.append(reader.getText());
+                        break;
+                    case XMLStreamConstants.START_ELEMENT:
+                        depth++;
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (depth == 0) {
+                            return text.toString();
+                        }
+                        depth--;
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return text.toString();
+        }
+
+        @Override
+        public void close() {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                // nothing left to release
+            }
+        }
+    }
+}
@@ -2,10 +2,15 @@ package main.java.com.meridian.utilities;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class StringUtils {
+    // One compiled line pattern per line size, shared by all instances
+    private static final ConcurrentMap<Integer, Pattern> LINE_PATTERNS = new ConcurrentHashMap<Integer, Pattern>();
+
     public StringUtils () {
     }
 
@@ -34,8 +39,7 @@ public class StringUtils {
     public List<String> splitString(String parentString, int lineSize) {
         List<String> res = new ArrayList<>();
 
-        Pattern p = Pattern.compile("\\b.{1," + (lineSize-1) + "}\\b\\W?");
-        Matcher m = p.matcher(parentString);
+        Matcher m = getLinePattern(lineSize).matcher(parentString);
 
         while(m.find()) {
 //            System.out.println(m.group().trim());   // Debug
@@ -49,27 +53,34 @@ public class StringUtils {
     }
 
 
+    private static Pattern getLinePattern (int lineSize) {
+        Pattern pattern = LINE_PATTERNS.get(lineSize);
+        if (pattern == null) {
+            pattern = Pattern.compile("\\b.{1," + (lineSize-1) + "}\\b\\W?");
+            LINE_PATTERNS.putIfAbsent(lineSize, pattern);
+        }
+        return pattern;
+    }
+
     public String[] splitByWordCount (String parentString, int chunkSize) {
-        int numberOfSubstrings = (int) Math.ceil((double) parentString.split(" ").length / chunkSize);
         String [] listOfAllWords = parentString.split(" ");
+        int numberOfSubstrings = (listOfAllWords.length + chunkSize - 1) / chunkSize;
 
         String[] subStringArray = new String[numberOfSubstrings];
-        String subString = "";
 
         int index = 0;
         for (int i = 0; i < listOfAllWords.length; i = i + chunkSize) {
-            if (listOfAllWords.length - i < chunkSize) {
-                subString = parentString.substring(i);
-                subStringArray[index++] = subString;
-//                System.out.println(subString);
-            } else {
-                subString = parentString.substring(i, i + chunkSize);
-                subStringArray[index++] = subString;
-//                System.out.println(subString);
-
+            int end = Math.min(listOfAllWords.length, i + chunkSize);
+            StringBuilder subString = new StringBuilder();
+            for (int j = i; j < end; j++) {
+                if (j > i) {
+                    subString.append(' ');
+                }
+                subString.append(listOfAllWords[j]);
             }
+            subStringArray[index++] = subString.toString();
         }
         return subStringArray;
 
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,5 @@
 package main.java.com.meridian.utilities.main.java.com.meridian.utilities.ctc;
 
-import com.twilio.clicktocall.exceptions.UndefinedEnvironmentVariableException;
-
 import java.util.Map;
 
 /**
@@ -0,0 +1,10 @@
+package main.java.com.meridian.utilities.main.java.com.meridian.utilities.ctc;
+
+/**
+ * Exception raised when a call cannot be placed.
+ */
+public class CallException extends RuntimeException {
+  public CallException(Throwable cause) {
+    super(cause);
+  }
+}
@@ -1,11 +1,9 @@
 package main.java.com.meridian.utilities.main.java.com.meridian.utilities.ctc;
 
-import com.twilio.clicktocall.exceptions.UndefinedEnvironmentVariableException;
-import com.twilio.clicktocall.lib.AppSetup;
-import com.twilio.clicktocall.lib.TwilioCallCreator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.twilio.exception.TwilioException;
 import com.twilio.http.TwilioRestClient;
-import org.json.JSONObject;
 
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
@@ -20,6 +18,8 @@ import java.net.URLEncoder;
 
 @WebServlet("/call")
 public class CallServlet extends HttpServlet {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
     private final TwilioCallCreator twilioCallCreator;
     private final String twilioNumber;
 
@@ -80,7 +80,7 @@ public class CallServlet extends HttpServlet {
     }
 
     private String getJSONResponse(String message) {
-        JSONObject obj = new JSONObject();
+        ObjectNode obj = objectMapper.createObjectNode();
         obj.put("message", message);
         obj.put("status", "ok");
 
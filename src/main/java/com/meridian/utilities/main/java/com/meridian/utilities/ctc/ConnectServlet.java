@@ -1,7 +1,5 @@
 package main.java.com.meridian.utilities.main.java.com.meridian.utilities.ctc;
 
-import com.twilio.clicktocall.exceptions.UndefinedEnvironmentVariableException;
-import com.twilio.clicktocall.lib.AppSetup;
 import com.twilio.security.RequestValidator;
 import com.twilio.twiml.VoiceResponse;
 import com.twilio.twiml.voice.Say;
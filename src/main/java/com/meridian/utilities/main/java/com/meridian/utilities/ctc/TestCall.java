@@ -18,12 +18,6 @@ public class TestCall {
         String from = "19149537025";
         String to = "+14133184527";
 
-        public TwilioRestClient twilioRestClient = new TwilioRestClient().
-
-        public TwilioRestClient twilioRestClient(@Value("${TWILIO_ACCOUNT_SID}") String accountSid,
-                @Value("${TWILIO_AUTH_TOKEN}") String authToken){
-            return new TwilioRestClient.Builder(accountSid, authToken).build();
-
         Call call = Call.creator(new PhoneNumber(to), new PhoneNumber(from), new URI("https://demo.twilio.com/docs/voice.xml")).create();
         System.out.println(call.getSid());
 
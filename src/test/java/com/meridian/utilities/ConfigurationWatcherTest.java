@@ -0,0 +1,93 @@
+package test.java.com.meridian.utilities;
+
+import main.java.com.meridian.utilities.ConfigurationWatcher;
+import main.java.com.meridian.utilities.SkillConfiguration;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * Writes a properties file, watches it and rewrites it, checking that every rewrite publishes a
+ * new configuration and that the one read before the rewrite is left as it was.
+ */
+
+public class ConfigurationWatcherTest {
+    private static final int WAIT_SECONDS = 15;
+
+    public static void main(String[] args) throws Exception {
+        final File file = new File(Files.createTempDirectory("skill-config").toFile(), "skill.properties");
+        write(file, "Welcome to version 1");
+        final AtomicReference<SkillConfiguration> current = new AtomicReference<SkillConfiguration>(read(file));
+        final Semaphore reloads = new Semaphore(0);
+
+        ConfigurationWatcher watcher = new ConfigurationWatcher(file.toPath(), new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    current.set(read(file));
+                    reloads.release();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        watcher.start();
+
+        try {
+            for (int version = 2; version <= 3; version++) {
+                SkillConfiguration before = current.get();
+                String welcome = "Welcome to version " + version;
+                write(file, welcome);
+
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+                while (!welcome.equals(current.get().getWelcomeMessage())) {
+                    long left = deadline - System.nanoTime();
+                    check(left > 0, "version " + version + " was not picked up within " + WAIT_SECONDS + " s");
+                    reloads.tryAcquire(left, TimeUnit.NANOSECONDS);
+                }
+                check(before.getWelcomeMessage().equals("Welcome to version " + (version - 1)),
+                        "the configuration read before version " + version + " changed");
+                System.out.println("Picked up: " + current.get().getWelcomeMessage());
+            }
+        } finally {
+            watcher.stop();
+        }
+    }
+
+    private static void write(File file, String welcome) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("speech-welcome", welcome);
+        OutputStream out = new FileOutputStream(file);
+        try {
+            properties.store(out, null);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static SkillConfiguration read(File file) throws IOException {
+        Properties properties = new Properties();
+        InputStream in = new FileInputStream(file);
+        try {
+            properties.load(in);
+        } finally {
+            in.close();
+        }
+        return new SkillConfiguration(properties, file.getAbsolutePath(), true);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
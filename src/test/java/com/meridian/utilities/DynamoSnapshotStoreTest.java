@@ -0,0 +1,137 @@
+package test.java.com.meridian.utilities;
+
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClient;
+import main.java.com.meridian.exception.FileReaderException;
+import main.java.com.meridian.utilities.DynamoSnapshotStore;
+import main.java.com.meridian.utilities.NewsFeed;
+import main.java.com.meridian.utilities.NewsFeedMessage;
+import main.java.com.meridian.utilities.SharedFeedLoader;
+import main.java.com.meridian.utilities.SnapshotFileStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Runs the shared snapshot store against DynamoDB Local, e.g.
+ *
+ *     java -Djava.library.path=DynamoDBLocal_lib -jar DynamoDBLocal.jar -inMemory -port 8000
+ *
+ * then this class with the endpoint as its argument (default http://localhost:8000). Two loaders
+ * with different owners stand in for two containers: a stale feed must be fetched from upstream
+ * once per burst of callers across both, and an abandoned lease must expire.
+ */
+
+public class DynamoSnapshotStoreTest {
+    private static final int CALLERS = 16;
+    private static final int TTL_SECONDS = 1;
+    private static final int LEASE_SECONDS = 2;
+    private static final int UPSTREAM_DELAY_MILLIS = 300;
+    private static final int WAIT_MILLIS = 1000;
+    private static final String FEED_URL = "http://example.com/news.rss";
+
+    public static void main(String[] args) throws Exception {
+        String endpoint = args.length > 0 ? args[0] : "http://localhost:8000";
+        AmazonDynamoDBClient client = new AmazonDynamoDBClient(new BasicAWSCredentials("local", "local"));
+        client.setEndpoint(endpoint);
+        String table = "meridian-snapshots-test-" + UUID.randomUUID();
+        DynamoSnapshotStore store = new DynamoSnapshotStore(client, table, LEASE_SECONDS);
+        store.createTableIfMissing();
+
+        final AtomicInteger upstreamRequests = new AtomicInteger();
+        SharedFeedLoader.Fetcher<NewsFeed> upstream = new SharedFeedLoader.Fetcher<NewsFeed>() {
+            @Override
+            public NewsFeed fetch(String feedUrl) throws FileReaderException {
+                int request = upstreamRequests.incrementAndGet();
+                try {
+                    Thread.sleep(UPSTREAM_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                NewsFeed feed = new NewsFeed("Shared", feedUrl, "", "en", "");
+                NewsFeedMessage message = new NewsFeedMessage();
+                message.setTitle("Story " + request);
+                message.setEncodedContent("<p>Body of story " + request + "</p>");
+                feed.getMessages().add(message);
+                return feed;
+            }
+        };
+        SharedFeedLoader<NewsFeed> first = new SharedFeedLoader<NewsFeed>(store, SnapshotFileStore.NEWS_CODEC,
+                upstream, TTL_SECONDS, WAIT_MILLIS, "container-1");
+        SharedFeedLoader<NewsFeed> second = new SharedFeedLoader<NewsFeed>(store, SnapshotFileStore.NEWS_CODEC,
+                upstream, TTL_SECONDS, WAIT_MILLIS, "container-2");
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+
+        try {
+            SnapshotFileStore.Stored<NewsFeed> fetched = first.load(FEED_URL);
+            SnapshotFileStore.Stored<NewsFeed> shared = second.load(FEED_URL);
+            check(upstreamRequests.get() == 1, "the second container fetched the feed itself");
+            check(shared.getFetchedAt() == fetched.getFetchedAt()
+                            && shared.getFeed().getMessages().get(0).getTitle().equals("Story 1"),
+                    "the second container did not read the shared copy");
+            System.out.println("Fresh feed: fetched once, read back by the other container");
+
+            for (int burst = 1; burst <= 3; burst++) {
+                Thread.sleep(TTL_SECONDS * 1000 + 100);
+                int before = upstreamRequests.get();
+                runBurst(callers, first, second);
+                int requests = upstreamRequests.get() - before;
+                check(requests == 1, "stale burst " + burst + " sent " + requests + " upstream requests");
+                System.out.println("Stale burst " + burst + ": " + CALLERS + " callers in two containers, 1 upstream request");
+            }
+
+            Thread.sleep(TTL_SECONDS * 1000 + 100);
+            long staleBefore = System.currentTimeMillis() - TTL_SECONDS * 1000;
+            check(store.tryAcquireLease(FEED_URL, "crashed", staleBefore), "no lease for a stale feed");
+            check(!store.tryAcquireLease(FEED_URL, "container-1", staleBefore), "a held lease was granted again");
+            Thread.sleep(LEASE_SECONDS * 1000 + 100);
+            check(store.tryAcquireLease(FEED_URL, "container-1", System.currentTimeMillis() - TTL_SECONDS * 1000),
+                    "an abandoned lease did not expire");
+            check(!store.save(FEED_URL, shared.getFeed(), System.currentTimeMillis(), SnapshotFileStore.NEWS_CODEC, "crashed"),
+                    "an expired lease owner overwrote the shared feed");
+            System.out.println("Abandoned lease expired after " + LEASE_SECONDS + " s and its owner can no longer write");
+
+            System.out.println(first);
+            System.out.println(second);
+        } finally {
+            callers.shutdownNow();
+            client.deleteTable(table);
+        }
+    }
+
+    /*
+     * Releases all callers at once, half of them in each container, and waits for every result.
+     */
+    private static void runBurst(ExecutorService callers, SharedFeedLoader<NewsFeed> first,
+                                 SharedFeedLoader<NewsFeed> second) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<SnapshotFileStore.Stored<NewsFeed>>> futures = new ArrayList<Future<SnapshotFileStore.Stored<NewsFeed>>>();
+        for (int i = 0; i < CALLERS; i++) {
+            final SharedFeedLoader<NewsFeed> loader = i % 2 == 0 ? first : second;
+            futures.add(callers.submit(new Callable<SnapshotFileStore.Stored<NewsFeed>>() {
+                @Override
+                public SnapshotFileStore.Stored<NewsFeed> call() throws Exception {
+                    start.await();
+                    return loader.load(FEED_URL);
+                }
+            }));
+        }
+        start.countDown();
+        for (Future<SnapshotFileStore.Stored<NewsFeed>> future : futures) {
+            check(future.get().getFeed() != null, "a caller got no feed");
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package test.java.com.meridian.utilities;
+
+import main.java.com.meridian.utilities.NewsIndex;
+
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Checks the ranking and limits of NewsIndex.search, and that a Builder shared across two
+ * snapshots only tokenises the articles that are new or edited.
+ */
+
+public class NewsIndexTest {
+
+    public static void main(String[] args) throws Exception {
+        NewsIndex.Builder builder = new NewsIndex.Builder(100);
+
+        List<String> titles = Arrays.asList(
+                "Harbor office tower sold",
+                "Retail rents climb",
+                "Warehouse demand cools",
+                "Hotel deal closes");
+        List<String> descriptions = Arrays.asList("", "", "", "");
+        List<String> bodies = Arrays.asList(
+                "A buyer paid a record price.",
+                "Landlords said office, office and office space is still in demand.",
+                "One office park reported vacancies.",
+                "The buyer plans a renovation.");
+        NewsIndex index = builder.build(titles, descriptions, bodies);
+        check(index.getArticleCount() == 4, "indexed " + index.getArticleCount() + " articles");
+
+        int[] found = index.search("offices", 10);
+        check(Arrays.equals(found, new int[] {0, 1, 2}), "offices found " + Arrays.toString(found));
+        System.out.println("A title word outweighs the same word three times in a body: " + Arrays.toString(found));
+
+        found = index.search("office", 2);
+        check(Arrays.equals(found, new int[] {0, 1}), "the top 2 for office were " + Arrays.toString(found));
+        found = index.search("office", 1);
+        check(Arrays.equals(found, new int[] {0}), "the top 1 for office was " + Arrays.toString(found));
+        System.out.println("A limit below the number of matches keeps the best ones, in order");
+
+        found = index.search("buyer renovation", 10);
+        check(found.length == 2 && found[0] == 3, "buyer renovation found " + Arrays.toString(found));
+        System.out.println("The article matching more words comes first: " + Arrays.toString(found));
+
+        check(index.search("what is the news about", 10).length == 0, "a query of stop words matched");
+        check(index.search("zebra", 10).length == 0, "a word in no article matched");
+        check(index.search("", 10).length == 0, "an empty query matched");
+        check(index.search(null, 10).length == 0, "a null query matched");
+        check(index.search("office", 0).length == 0, "a limit of 0 matched");
+        System.out.println("Stop words only, unknown words and empty queries find nothing");
+
+        check(builder.getTokenizedCount() == 4 && builder.getReusedCount() == 0,
+                "first build: " + builder);
+
+        // The next snapshot keeps two articles, edits one body, drops one and adds one
+        List<String> nextTitles = Arrays.asList(
+                "Harbor office tower sold",
+                "Retail rents climb",
+                "Hotel deal closes",
+                "Lab space in short supply");
+        List<String> nextDescriptions = Arrays.asList("", "", "", "");
+        List<String> nextBodies = Arrays.asList(
+                "A buyer paid a record price.",
+                "Landlords said rents rose again this quarter.",
+                "The buyer plans a renovation.",
+                "Biotech tenants want office and lab space.");
+        NewsIndex next = builder.build(nextTitles, nextDescriptions, nextBodies);
+        check(builder.getReusedCount() == 2, "second build reused " + builder.getReusedCount() + " articles");
+        check(builder.getTokenizedCount() == 6, "second build tokenized " + (builder.getTokenizedCount() - 4) + " articles");
+        System.out.println("Second build: 2 articles reused, 2 tokenized");
+
+        found = next.search("office", 10);
+        check(Arrays.equals(found, new int[] {0, 3}), "office in the second snapshot found " + Arrays.toString(found));
+        found = next.search("demand", 10);
+        check(found.length == 0, "the edited article still matched its old body, or the dropped one its title");
+        System.out.println("The second index holds the edited and new articles: " + builder);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package test.java.com.meridian.utilities;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import main.java.com.meridian.exception.FileReaderException;
+import main.java.com.meridian.utilities.FeedCache;
+import main.java.com.meridian.utilities.NewsFeed;
+import main.java.com.meridian.utilities.NewsRSSFeedParser;
+import main.java.com.meridian.utilities.SingleFlightLoader;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Concurrency stress test for SingleFlightLoader: every burst of simultaneous callers for one feed
+ * must reach the upstream server exactly once and all callers must see the same outcome.
+ */
+
+public class SingleFlightLoaderTest {
+    private static final int CALLERS = 32;
+    private static final int BURSTS = 5;
+    private static final int UPSTREAM_DELAY_MILLIS = 300;
+
+    private static final byte[] FEED = ("<rss xmlns:content=\"http://purl.org/rss/1.0/modules/content/\"><channel>"
+            + "<title>Stress</title><item><title>One</title><content:encoded>Body</content:encoded></item>"
+            + "</channel></rss>").getBytes();
+
+    public static void main(String[] args) throws Exception {
+        final AtomicInteger upstreamRequests = new AtomicInteger();
+        final AtomicBoolean failUpstream = new AtomicBoolean();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/feed", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                upstreamRequests.incrementAndGet();
+                try {
+                    Thread.sleep(UPSTREAM_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (failUpstream.get()) {
+                    exchange.sendResponseHeaders(500, -1);
+                } else {
+                    exchange.sendResponseHeaders(200, FEED.length);
+                    exchange.getResponseBody().write(FEED);
+                }
+                exchange.close();
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        String feedUrl = "http://localhost:" + server.getAddress().getPort() + "/feed";
+        SingleFlightLoader<NewsFeed> loader = new SingleFlightLoader<NewsFeed>(new FeedCache.Loader<NewsFeed>() {
+            @Override
+            public NewsFeed load(String url) throws FileReaderException {
+                return new NewsRSSFeedParser(url).readFeed();
+            }
+        });
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+
+        try {
+            for (int burst = 1; burst <= BURSTS; burst++) {
+                boolean failing = burst == BURSTS;
+                failUpstream.set(failing);
+                int before = upstreamRequests.get();
+
+                List<Object> outcomes = runBurst(callers, loader, feedUrl);
+
+                int requests = upstreamRequests.get() - before;
+                check(requests == 1, "burst " + burst + " sent " + requests + " upstream requests");
+                Object first = outcomes.get(0);
+                for (Object outcome : outcomes) {
+                    check(outcome == first, "burst " + burst + " callers saw different results");
+                }
+                check(failing == (first instanceof FileReaderException),
+                        "burst " + burst + " returned " + first);
+                System.out.println("Burst " + burst + ": " + CALLERS + " callers, 1 upstream request, result "
+                        + (failing ? "shared failure" : "shared feed"));
+            }
+            System.out.println("Executed " + loader.getExecutedCount() + ", coalesced " + loader.getCoalescedCount());
+        } finally {
+            callers.shutdownNow();
+            server.stop(0);
+        }
+    }
+
+    /*
+     * Releases all callers at once and collects each caller's feed or exception.
+     */
+    private static List<Object> runBurst(ExecutorService callers, final SingleFlightLoader<NewsFeed> loader,
+                                         final String feedUrl) throws InterruptedException, ExecutionException {
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<Future<Object>>();
+        for (int i = 0; i < CALLERS; i++) {
+            futures.add(callers.submit(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    start.await();
+                    try {
+                        return loader.load(feedUrl);
+                    } catch (FileReaderException e) {
+                        return e;
+                    }
+                }
+            }));
+        }
+        start.countDown();
+
+        List<Object> outcomes = new ArrayList<Object>();
+        for (Future<Object> future : futures) {
+            outcomes.add(future.get());
+        }
+        return outcomes;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package test.java.com.meridian.utilities;
+
+import main.java.com.meridian.utilities.SpeechChunker;
+import main.java.com.meridian.utilities.SsmlSanitizer;
+
+import java.util.List;
+
+/*
+ * Checks that SpeechChunker cuts sanitised article text into segments of at most the word limit,
+ * at sentence ends where it can, and that a '<' decoded from the feed is counted as text.
+ */
+
+public class SpeechChunkerTest {
+    private static final int MAX_WORDS = 90;
+
+    public static void main(String[] args) throws Exception {
+        SpeechChunker chunker = new SpeechChunker(MAX_WORDS);
+
+        String plain = SsmlSanitizer.sanitize("<p>Cap rates fell to under 5% " + sentences(80) + "</p>");
+        String lessThan = SsmlSanitizer.sanitize("<p>Cap rates fell to &lt;5% " + sentences(80) + "</p>");
+        check(lessThan.startsWith("Cap rates fell to <5%"), "the entity was not decoded: " + lessThan.substring(0, 30));
+
+        List<String> plainSegments = chunker.chunk(plain);
+        List<String> lessThanSegments = chunker.chunk(lessThan);
+        checkSegments(plainSegments, plain);
+        checkSegments(lessThanSegments, lessThan);
+        check(lessThanSegments.size() == plainSegments.size(), "'under' gave " + plainSegments.size()
+                + " segments, '<' gave " + lessThanSegments.size());
+        System.out.println(words(lessThan) + " words starting with a decoded '<': " + lessThanSegments.size()
+                + " segments, like the same text with 'under'");
+
+        List<String> sentences = chunker.chunk(sentences(40));
+        for (String segment : sentences) {
+            check(segment.endsWith("."), "a segment ends mid sentence: ..."
+                    + segment.substring(Math.max(0, segment.length() - 30)));
+        }
+        System.out.println("40 short sentences: " + sentences.size() + " segments, each ending a sentence");
+
+        List<String> oneSentence = chunker.chunk(repeat("word ", 200).trim());
+        check(oneSentence.size() == 3 && words(oneSentence.get(0)) == MAX_WORDS,
+                "a 200 word sentence gave " + oneSentence.size() + " segments");
+        check(chunker.chunk(null).isEmpty() && chunker.chunk("   ").isEmpty(), "blank text gave a segment");
+        System.out.println("A sentence longer than a segment is cut at word boundaries; blank text gives none");
+    }
+
+    private static void checkSegments(List<String> segments, String text) {
+        int total = 0;
+        for (String segment : segments) {
+            int words = words(segment);
+            check(words <= MAX_WORDS, "a segment holds " + words + " words");
+            total += words;
+        }
+        check(total == words(text), "the segments hold " + total + " of " + words(text) + " words");
+    }
+
+    private static String sentences(int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 1; i <= count; i++) {
+            text.append("Sentence ").append(i).append(" has about six words. ");
+        }
+        return text.toString();
+    }
+
+    private static String repeat(String text, int count) {
+        StringBuilder repeated = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            repeated.append(text);
+        }
+        return repeated.toString();
+    }
+
+    private static int words(String text) {
+        String trimmed = text.trim();
+        return trimmed.isEmpty() ? 0 : trimmed.split("\\s+").length;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
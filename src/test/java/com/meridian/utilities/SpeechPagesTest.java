@@ -0,0 +1,68 @@
+package test.java.com.meridian.utilities;
+
+import main.java.com.meridian.utilities.PageBudget;
+import main.java.com.meridian.utilities.SpeechPage;
+import main.java.com.meridian.utilities.SpeechPages;
+
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Checks that SpeechPages speaks the separator between articles only, never between two segments
+ * of the same article, on the rendered pages and on a page read from an item on.
+ */
+
+public class SpeechPagesTest {
+    private static final String SEPARATOR = "Next news";
+    private static final String MORE_PROMPT = "Do you want hear more?";
+
+    public static void main(String[] args) throws Exception {
+        PageBudget budget = new PageBudget(8000, 90, 150);
+        List<String> segments = Arrays.asList(
+                "First article, part one.",
+                "First article, part two.",
+                "Second article.",
+                "Third article, part one.",
+                "Third article, part two.");
+        int[] articles = {0, 0, 1, 2, 2};
+
+        SpeechPages pages = SpeechPages.render(segments, articles, budget, SEPARATOR, MORE_PROMPT);
+        check(pages.size() == 1, "five short segments took " + pages.size() + " pages");
+        String ssml = pages.get(0).getSsml();
+        check(count(ssml, SEPARATOR) == 2, "the page speaks the separator " + count(ssml, SEPARATOR) + " times: " + ssml);
+        check(!ssml.contains("part one. " + SEPARATOR), "a separator splits an article: " + ssml);
+        check(ssml.contains("part two. " + SEPARATOR + "</p> <p>Second"), "no separator before the second article: " + ssml);
+        check(count(pages.get(0).getCard(), SEPARATOR) == 2, "the card has another separator count: " + pages.get(0).getCard());
+        System.out.println("3 articles in 5 segments: 2 separators, on the speech and on the card");
+
+        String from = pages.getFrom(1).getSsml();
+        check(from.startsWith("<speak><p>First article, part two. " + SEPARATOR) && count(from, SEPARATOR) == 2,
+                "reading from the second segment: " + from);
+        System.out.println("Reading on from the middle of an article keeps the separators between articles");
+
+        SpeechPages ungrouped = SpeechPages.render(segments, budget, SEPARATOR, MORE_PROMPT);
+        check(count(ungrouped.get(0).getSsml(), SEPARATOR) == 4, "ungrouped items: " + ungrouped.get(0).getSsml());
+        System.out.println("Items without articles are each separated, as before");
+
+        try {
+            SpeechPages.render(segments, new int[] {0, 1}, budget, SEPARATOR, MORE_PROMPT);
+            check(false, "an article array of the wrong length was accepted");
+        } catch (IllegalArgumentException expected) {
+            System.out.println("An article array of the wrong length is rejected: " + expected.getMessage());
+        }
+    }
+
+    private static int count(String text, String part) {
+        int found = 0;
+        for (int at = text.indexOf(part); at >= 0; at = text.indexOf(part, at + part.length())) {
+            found++;
+        }
+        return found;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
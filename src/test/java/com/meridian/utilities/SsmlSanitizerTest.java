@@ -0,0 +1,48 @@
+package test.java.com.meridian.utilities;
+
+import main.java.com.meridian.utilities.SsmlSanitizer;
+
+/*
+ * Checks that numeric entities never decode to characters XML 1.0 forbids, which would make Alexa
+ * reject the whole SSML response, while ordinary entities still come through.
+ */
+
+public class SsmlSanitizerTest {
+
+    public static void main(String[] args) throws Exception {
+        String[] illegal = {"&#1;", "&#x1;", "&#0;", "&#x7F;", "&#x85;", "&#xD800;", "&#xDFFF;",
+                "&#xFDD0;", "&#xFFFE;", "&#65535;", "&#x1F600;"};
+        for (String entity : illegal) {
+            String text = SsmlSanitizer.sanitize("a" + entity + "b");
+            check(text.equals("a b"), entity + " was decoded to " + describe(text));
+        }
+        System.out.println(illegal.length + " illegal numeric entities decoded to a space");
+
+        check(SsmlSanitizer.sanitize("a&#9;b&#10;c&#13;d").equals("a b c d"), "tab, line feed or carriage return was lost");
+        check(SsmlSanitizer.sanitize("caf&#233; &#x20AC;5 &amp; &#x2014;").equals("caf\u00E9 \u20AC5 & \u2014"),
+                "an ordinary entity was not decoded");
+        check(SsmlSanitizer.sanitize("&#xZZ; &#;").equals("&#xZZ; &#;"), "a malformed entity was not kept as text");
+        System.out.println("Whitespace, ordinary and malformed entities unchanged");
+
+        String ssml = SsmlSanitizer.escape(SsmlSanitizer.sanitize("<p>&#2;&lt;b&gt;&#xDBFF;</p>"), new StringBuilder()).toString();
+        for (int i = 0; i < ssml.length(); i++) {
+            char c = ssml.charAt(i);
+            check(c >= ' ' && !Character.isSurrogate(c), "escaped SSML holds " + describe(ssml));
+        }
+        System.out.println("Escaped SSML: " + ssml);
+    }
+
+    private static String describe(String text) {
+        StringBuilder described = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            described.append(String.format("\\u%04X", (int) text.charAt(i)));
+        }
+        return described.toString();
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}